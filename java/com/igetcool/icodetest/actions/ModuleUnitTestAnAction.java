@@ -0,0 +1,38 @@
+package com.igetcool.icodetest.actions;
+
+import com.igetcool.icodetest.enums.OperateType;
+import com.igetcool.icodetest.processor.ProcessorContext;
+import com.igetcool.icodetest.utils.I18nUtils;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 当前模块下所有类快速生成单元测试
+ */
+public class ModuleUnitTestAnAction extends AnAction {
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        String text = I18nUtils.moduleAction();
+        e.getPresentation().setText(text);
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return super.getActionUpdateThread();
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+        // 项目与模块的生成不需要打开的编辑器
+        ProcessorContext.create(OperateType.MODULE).process(project, e.getDataContext());
+    }
+
+}
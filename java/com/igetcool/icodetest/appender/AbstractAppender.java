@@ -1,19 +1,21 @@
 package com.igetcool.icodetest.appender;
 
 import com.igetcool.icodetest.layout.Layout;
+import com.igetcool.icodetest.models.ClassMetaInfo;
+import com.igetcool.icodetest.models.event.DefaultTextEvent;
 
 /**
  * Appender接口的抽象实现。
  * 此类提供了布局(Layout)的设置和获取功能。
  * 所有具体追加器实现类都应该继承此类，并实现具体追加逻辑。
  */
-public abstract class AbstractAppender implements Appender {
+public abstract class AbstractAppender<E> implements Appender<E> {
 
     /**
      * 布局对象，用于格式化信息。
      * 布局对象定义了信息的格式和结构。
      */
-    protected Layout layout;
+    protected Layout<E> layout;
 
     /**
      * 设置布局(Layout)。
@@ -22,7 +24,7 @@ public abstract class AbstractAppender implements Appender {
      * @param layout 布局对象
      */
     @Override
-    public void setLayout(Layout layout) {
+    public void setLayout(Layout<E> layout) {
         this.layout = layout;
     }
 
@@ -32,7 +34,25 @@ public abstract class AbstractAppender implements Appender {
      * @return 返回当前设置的布局对象
      */
     @Override
-    public Layout getLayout() {
+    public Layout<E> getLayout() {
         return layout;
     }
+
+    /**
+     * 确定单元测试事件的最终类名。
+     * 如果事件对象包含方法名，类名将追加该方法名以区分不同的测试用例。
+     *
+     * @param defaultTextEvent 单元测试事件对象
+     * @return 最终类名，同时也是文件名（不含扩展名）
+     */
+    protected String resolveFinalClassName(DefaultTextEvent defaultTextEvent) {
+        ClassMetaInfo classMetaInfo = defaultTextEvent.getClassMetaInfo();
+        String includeMethodName = defaultTextEvent.getIncludeMethodName();
+        String finalClassName = classMetaInfo.getFinalClassName();
+        if (includeMethodName != null && !includeMethodName.isEmpty()) {
+            finalClassName += "_" + includeMethodName;
+            classMetaInfo.setFinalClassName(finalClassName);
+        }
+        return finalClassName;
+    }
 }
@@ -1,23 +1,43 @@
 package com.igetcool.icodetest.appender;
 
+import com.igetcool.icodetest.enums.WriteResult;
 import com.igetcool.icodetest.layout.Layout;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Appender接口定义了一个通用的事件追加机制。
- * 该接口允许实现者定义如何将不同类型的事件对象追加到目标媒介。
+ * 该接口允许实现者定义如何将不同类型的事件对象追加到目标媒介，E 为追加器接受的事件类型。
  * 此外，Appender接口还提供了布局(Layout)的设置和获取方法，用于定义事件对象的呈现方式。
  */
-public interface Appender {
+public interface Appender<E> {
 
     /**
      * 将指定的事件对象追加到目标媒介。
-     * 该方法接受一个泛型参数，使其能够处理不同类型的事件对象。
      *
-     * @param <T>   事件对象的类型
      * @param event 要追加的事件对象
-     * @return 如果事件成功追加，则返回true；否则返回false
+     * @return 追加的结果；目标内容与已有内容相同时返回 WriteResult.UNCHANGED
+     */
+    WriteResult append(E event);
+
+    /**
+     * 完成所有已接受但尚未完成的追加，并返回它们的结果。
+     * append 返回 WriteResult.QUEUED 的事件，其最终结果以事件对象为键出现在返回的表中；
+     * 在 append 中同步完成追加的实现没有待完成的追加，返回空表。
+     *
+     * @return 以事件对象为键的追加结果，顺序与追加顺序一致
+     */
+    default Map<E, WriteResult> flush() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * 释放追加器占用的资源，尚未完成的追加被放弃。
+     * 生成被取消或异常中断时也必须调用，flush 之后调用没有副作用。
      */
-    <T> boolean append(T event);
+    default void close() {
+    }
 
     /**
      * 设置事件对象的布局(Layout)。
@@ -25,13 +45,13 @@ public interface Appender {
      *
      * @param layout 用于定义事件对象呈现方式的布局对象
      */
-    void setLayout(Layout layout);
+    void setLayout(Layout<E> layout);
 
     /**
      * 获取当前设置的布局(Layout)。
      *
      * @return 返回当前设置的布局对象
      */
-    Layout getLayout();
+    Layout<E> getLayout();
 
 }
\ No newline at end of file
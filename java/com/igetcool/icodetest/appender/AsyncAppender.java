@@ -0,0 +1,186 @@
+package com.igetcool.icodetest.appender;
+
+import com.igetcool.icodetest.enums.WriteResult;
+import com.igetcool.icodetest.layout.Layout;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * AsyncAppender类是在独立的写出线程中完成追加的装饰器。
+ * append 只把事件放入有界队列并立即返回，写出线程按顺序从队列中取出事件交给被装饰的追加器，
+ * 因此生成下一个测试文件的同时，上一个测试文件正在写入磁盘。
+ * 队列已满时 append 等待写出线程腾出空间，未写出的事件不会无限堆积在内存中。
+ * 所有事件的最终结果在 flush 时返回，flush 之后追加器不能再使用。
+ */
+public class AsyncAppender<E> implements Appender<E> {
+
+    private static final Logger LOG = Logger.getInstance(AsyncAppender.class);
+
+    private static final String WRITER_NAME = "iCodeTest Writer";
+
+    /**
+     * 队列中表示追加结束的标记，写出线程取到它后结束。
+     */
+    private static final Object END_OF_QUEUE = new Object();
+
+    /**
+     * 队列已满时，每次等待的最长时间，超时后检查是否已取消。
+     */
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final Appender<E> delegate;
+
+    private final BlockingQueue<Object> queue;
+
+    /**
+     * 以事件对象为键的追加结果，按追加顺序排列，写出线程与调用线程都会访问，访问时以自身加锁。
+     */
+    private final Map<E, WriteResult> results = new LinkedHashMap<>();
+
+    private final ExecutorService writerExecutor;
+
+    private final Future<?> writer;
+
+    private volatile boolean closed;
+
+    /**
+     * 构造函数，初始化追加器实例并启动写出线程。
+     *
+     * @param delegate 实际完成追加的追加器，只在写出线程中调用
+     * @param capacity 队列中最多等待写出的事件数
+     */
+    public AsyncAppender(Appender<E> delegate, int capacity) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writerExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor(WRITER_NAME, 1);
+        this.writer = writerExecutor.submit(this::drain);
+    }
+
+    /**
+     * 把事件放入写出队列，队列已满时等待，等待期间响应取消。
+     *
+     * @param event 要追加的事件对象，放入队列后调用方不应再修改
+     * @return 放入队列时返回 WriteResult.QUEUED；追加器已关闭或写出线程已停止时返回 WriteResult.FAILED
+     */
+    @Override
+    public WriteResult append(E event) {
+        if (closed) {
+            return WriteResult.FAILED;
+        }
+        synchronized (results) {
+            results.put(event, WriteResult.QUEUED);
+        }
+        if (!enqueue(event)) {
+            synchronized (results) {
+                results.put(event, WriteResult.FAILED);
+            }
+            return WriteResult.FAILED;
+        }
+        return WriteResult.QUEUED;
+    }
+
+    /**
+     * 等待写出线程处理完队列中的所有事件，再完成被装饰的追加器中尚未完成的追加。
+     * 写出线程提前停止时，仍未写出的事件按失败返回，不会以 WriteResult.QUEUED 的结果被遗漏。
+     *
+     * @return 以事件对象为键的追加结果，顺序与追加顺序一致
+     */
+    @Override
+    public Map<E, WriteResult> flush() {
+        if (!closed && enqueue(END_OF_QUEUE)) {
+            ProgressIndicatorUtils.awaitWithCheckCanceled(writer);
+        }
+        closed = true;
+        final Map<E, WriteResult> result;
+        synchronized (results) {
+            result = new LinkedHashMap<>(results);
+            results.clear();
+        }
+        result.putAll(delegate.flush());
+        result.replaceAll((event, writeResult) -> writeResult == WriteResult.QUEUED ? WriteResult.FAILED : writeResult);
+        return result;
+    }
+
+    /**
+     * 放弃队列中尚未写出的事件，并结束写出线程，正在写出的文件照常完成。
+     */
+    @Override
+    public void close() {
+        closed = true;
+        queue.clear();
+        // 结束标记可能随队列一起被清除，重新放入；队列刚被清空，一定有空间
+        queue.offer(END_OF_QUEUE);
+        writerExecutor.shutdown();
+        delegate.close();
+    }
+
+    @Override
+    public void setLayout(Layout<E> layout) {
+        delegate.setLayout(layout);
+    }
+
+    @Override
+    public Layout<E> getLayout() {
+        return delegate.getLayout();
+    }
+
+    /**
+     * 把元素放入队列，队列已满时分段等待，每段等待之后检查是否已取消。
+     *
+     * @param element 事件对象或结束标记
+     * @return 放入成功返回true；写出线程已停止时返回false
+     */
+    private boolean enqueue(Object element) {
+        try {
+            while (!queue.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                ProgressManager.checkCanceled();
+                if (writer.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        }
+    }
+
+    /**
+     * 写出线程的主循环：按顺序取出事件交给被装饰的追加器，取到结束标记时返回。
+     * 追加时的异常只让当前事件失败，写出线程继续处理后续事件；取消与 Error 结束写出线程，并在 flush 等待写出线程时重新抛出。
+     */
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        try {
+            while (true) {
+                Object element = queue.take();
+                if (element == END_OF_QUEUE) {
+                    return;
+                }
+                // 队列中除结束标记外只有 append 放入的事件
+                E event = (E) element;
+                WriteResult writeResult;
+                try {
+                    writeResult = delegate.append(event);
+                } catch (ProcessCanceledException e) {
+                    throw e;
+                } catch (Exception e) {
+                    LOG.warn("Error occurred while appending asynchronously", e);
+                    writeResult = WriteResult.FAILED;
+                }
+                synchronized (results) {
+                    results.put(event, writeResult);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
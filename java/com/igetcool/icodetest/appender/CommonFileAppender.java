@@ -1,6 +1,7 @@
 package com.igetcool.icodetest.appender;
 
 import com.igetcool.icodetest.boot.SettingsManager;
+import com.igetcool.icodetest.enums.WriteResult;
 import com.igetcool.icodetest.layout.CommonLayout;
 import com.igetcool.icodetest.models.event.CommonTextEvent;
 import com.igetcool.icodetest.utils.FileProcessor;
@@ -10,7 +11,7 @@ import com.igetcool.icodetest.utils.FileProcessor;
  * 此类继承自AbstractAppender类，并实现了具体的事件追加逻辑。
  * 它提供了一个构造函数来初始化文件追加器实例，并定义了是否覆盖已存在文件的标志。
  */
-public class CommonFileAppender extends AbstractAppender {
+public class CommonFileAppender extends AbstractAppender<CommonTextEvent> {
 
     /**
      * 是否覆盖文件的标志。
@@ -26,24 +27,22 @@ public class CommonFileAppender extends AbstractAppender {
      */
     public CommonFileAppender(boolean overwrite) {
         this.overwrite = overwrite;
-        this.layout = new CommonLayout<CommonTextEvent>();
+        this.layout = new CommonLayout<>();
     }
 
     /**
      * 将事件对象追加到文件中。
-     * 该方法接受一个泛型事件对象，转换为CommonTextEvent类型，并调用文件处理器来创建或追加文件。
+     * 该方法调用文件处理器来创建或追加文件，布局代码通过 formatTo 直接写入文件。
      *
-     * @param <T>   事件对象的类型
-     * @param event 要追加的事件对象
-     * @return 如果事件成功追加，则返回true；否则返回false
+     * @param commonTextEvent 要追加的事件对象
+     * @return 追加的结果；目标内容与已有内容相同时返回 WriteResult.UNCHANGED
      */
     @Override
-    public <T> boolean append(T event) {
-        CommonTextEvent commonTextEvent = (CommonTextEvent) event;
-        return FileProcessor.createFileWithContent(
+    public WriteResult append(CommonTextEvent commonTextEvent) {
+        return FileProcessor.writeFile(
                 getDirectoryPath(commonTextEvent),
                 String.format("%s.java", SettingsManager.INSTANCE.getCommonClassName()),
-                getLayout().format(commonTextEvent),
+                writer -> getLayout().formatTo(commonTextEvent, writer),
                 this.overwrite
         );
     }
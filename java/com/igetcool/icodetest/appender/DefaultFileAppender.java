@@ -1,9 +1,12 @@
 package com.igetcool.icodetest.appender;
 
+import com.igetcool.icodetest.enums.WriteResult;
 import com.igetcool.icodetest.layout.DefaultLayout;
 import com.igetcool.icodetest.models.ClassMetaInfo;
 import com.igetcool.icodetest.models.event.DefaultTextEvent;
 import com.igetcool.icodetest.utils.FileProcessor;
+import com.igetcool.icodetest.utils.TestClassMerger;
+import com.intellij.openapi.project.Project;
 
 /**
  * DefaultFileAppender类是用于单元测试的文件追加器。
@@ -11,7 +14,7 @@ import com.igetcool.icodetest.utils.FileProcessor;
  * 它专门用于处理ClassTextEvent类型的事件，这些事件与单元测试的类元数据相关。
  * 此类提供了一个构造函数来初始化文件追加器实例，并定义了是否覆盖已存在文件的标志。
  */
-public class DefaultFileAppender extends AbstractAppender {
+public class DefaultFileAppender extends AbstractAppender<DefaultTextEvent> {
 
     /**
      * 是否覆盖文件的标志。
@@ -20,39 +23,54 @@ public class DefaultFileAppender extends AbstractAppender {
      */
     private final boolean overwrite;
 
+    /**
+     * 当前项目，合并已存在的测试类时用于解析 PSI。
+     */
+    private final Project project;
+
     /**
      * 构造函数，初始化文件追加器实例。
      *
+     * @param project   当前的Project对象
      * @param overwrite 是否覆盖已存在文件的标志。
      */
-    public DefaultFileAppender(boolean overwrite) {
+    public DefaultFileAppender(Project project, boolean overwrite) {
+        this.project = project;
         this.overwrite = overwrite;
-        this.layout = new DefaultLayout<DefaultTextEvent>();
+        this.layout = new DefaultLayout<>();
     }
 
     /**
      * 将单元测试事件对象追加到文件中。
      * 该方法接受ClassTextEvent类型的事件对象，并根据事件对象的类元数据和方法名创建或追加文件。
      * 如果事件对象包含方法名，文件名将包含该方法名以区分不同的测试用例。
+     * 事件要求合并且目标文件已存在时，只把缺少的导入、字段和测试方法追加到已存在的文件中。
      *
-     * @param <T>   事件对象的类型，必须是ClassTextEvent或其子类型
-     * @param event 要追加的单元测试事件对象
-     * @return 如果事件成功追加，则返回true；否则返回false
+     * @param defaultTextEvent 要追加的单元测试事件对象
+     * @return 追加的结果；目标内容与已有内容相同时返回 WriteResult.UNCHANGED
      */
     @Override
-    public <T> boolean append(T event) {
-        DefaultTextEvent defaultTextEvent = (DefaultTextEvent) event;
+    public WriteResult append(DefaultTextEvent defaultTextEvent) {
         ClassMetaInfo classMetaInfo = defaultTextEvent.getClassMetaInfo();
-        String includeMethodName = defaultTextEvent.getIncludeMethodName();
-        String finalClassName = classMetaInfo.getFinalClassName();
-        if (includeMethodName != null && !includeMethodName.isEmpty()) {
-            finalClassName += "_" + includeMethodName;
-            classMetaInfo.setFinalClassName(finalClassName);
+        String finalClassName = resolveFinalClassName(defaultTextEvent);
+        if (defaultTextEvent.isMergeExisting()) {
+            String existingText = FileProcessor.readFileToString(classMetaInfo.getFinalAbsolutePath() + "/" + finalClassName + ".java");
+            if (existingText != null) {
+                // 合并需要完整的生成文本
+                String content = TestClassMerger.merge(project, existingText, getLayout().format(defaultTextEvent));
+                return FileProcessor.writeFile(
+                        classMetaInfo.getFinalAbsolutePath(),
+                        finalClassName + ".java",
+                        writer -> writer.write(content),
+                        this.overwrite
+                );
+            }
         }
-        return FileProcessor.createFileWithContent(
+        // 布局代码直接写入文件，不构造完整的字符串
+        return FileProcessor.writeFile(
                 classMetaInfo.getFinalAbsolutePath(),
                 finalClassName + ".java",
-                getLayout().format(defaultTextEvent),
+                writer -> getLayout().formatTo(defaultTextEvent, writer),
                 this.overwrite
         );
     }
@@ -0,0 +1,222 @@
+package com.igetcool.icodetest.appender;
+
+import com.igetcool.icodetest.boot.SettingsManager;
+import com.igetcool.icodetest.enums.WriteResult;
+import com.igetcool.icodetest.layout.CommonLayout;
+import com.igetcool.icodetest.layout.DefaultLayout;
+import com.igetcool.icodetest.models.ClassMetaInfo;
+import com.igetcool.icodetest.models.event.CommonTextEvent;
+import com.igetcool.icodetest.models.event.DefaultTextEvent;
+import com.igetcool.icodetest.utils.TestClassMerger;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.util.IncorrectOperationException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DocumentAppender类是通过 IDE 的 VFS 与 Document 写出单元测试的追加器。
+ * append 只登记事件，flush 时在一个 WriteCommandAction 中创建或更新全部测试文件：
+ * 新文件通过 PsiFileFactory 创建并加入目录，已存在的文件直接修改其 Document。
+ * 测试继承的公共类通过 getCommonAppender 登记，在同一个 WriteCommandAction 中先于测试文件创建，
+ * 这样 IDE 立即感知到所有文件，新的测试引用的公共类不需要等待文件系统刷新与索引，整批写出也可以一次撤销。
+ */
+public class DocumentAppender extends AbstractAppender<DefaultTextEvent> {
+
+    private static final String COMMAND_NAME = "Generate Unit Tests";
+
+    private final Project project;
+
+    /**
+     * 已登记、尚未写出的事件，按登记顺序排列。
+     */
+    private final List<DefaultTextEvent> pendingEvents = new ArrayList<>();
+
+    /**
+     * 已登记、尚未创建的公共类，按登记顺序排列。
+     */
+    private final List<CommonTextEvent> pendingCommonEvents = new ArrayList<>();
+
+    private final Appender<CommonTextEvent> commonAppender = new CommonDocumentAppender();
+
+    /**
+     * 构造函数，初始化追加器实例。
+     *
+     * @param project 当前的Project对象
+     */
+    public DocumentAppender(Project project) {
+        this.project = project;
+        this.layout = new DefaultLayout<>();
+    }
+
+    /**
+     * 获取登记测试公共类的追加器，登记的公共类在 flush 时与测试文件一起创建。
+     *
+     * @return 公共类的追加器，append 总是返回 WriteResult.QUEUED
+     */
+    public Appender<CommonTextEvent> getCommonAppender() {
+        return commonAppender;
+    }
+
+    /**
+     * 登记单元测试事件对象，测试文件在 flush 时统一写出。
+     *
+     * @param defaultTextEvent 要追加的单元测试事件对象
+     * @return 总是返回 WriteResult.QUEUED
+     */
+    @Override
+    public WriteResult append(DefaultTextEvent defaultTextEvent) {
+        resolveFinalClassName(defaultTextEvent);
+        pendingEvents.add(defaultTextEvent);
+        return WriteResult.QUEUED;
+    }
+
+    /**
+     * 在一个 WriteCommandAction 中创建所有已登记的公共类，再写出所有已登记的测试文件。
+     * 文本在写操作之外生成，写操作中只创建文件或替换文档内容；必须在 EDT 之外调用。
+     *
+     * @return 以事件对象为键的测试文件写出结果，顺序与登记顺序一致
+     */
+    @Override
+    public Map<DefaultTextEvent, WriteResult> flush() {
+        final Map<DefaultTextEvent, WriteResult> result = new LinkedHashMap<>();
+        if (pendingEvents.isEmpty() && pendingCommonEvents.isEmpty()) {
+            return result;
+        }
+        final Map<CommonTextEvent, String> commonTexts = new LinkedHashMap<>();
+        for (CommonTextEvent commonTextEvent : pendingCommonEvents) {
+            commonTexts.put(commonTextEvent, commonAppender.getLayout().format(commonTextEvent));
+        }
+        pendingCommonEvents.clear();
+        final Map<DefaultTextEvent, String> generatedTexts = new LinkedHashMap<>();
+        for (DefaultTextEvent defaultTextEvent : pendingEvents) {
+            generatedTexts.put(defaultTextEvent, getLayout().format(defaultTextEvent));
+            // 写操作失败或被取消时，未写出的事件按失败处理
+            result.put(defaultTextEvent, WriteResult.FAILED);
+        }
+        pendingEvents.clear();
+        ApplicationManager.getApplication().invokeAndWait(() ->
+                WriteCommandAction.writeCommandAction(project)
+                        .withName(COMMAND_NAME)
+                        .run(() -> {
+                            // 先创建公共类，测试文件创建时即可解析到继承的父类
+                            for (Map.Entry<CommonTextEvent, String> entry : commonTexts.entrySet()) {
+                                writeCommonFile(entry.getKey(), entry.getValue());
+                            }
+                            for (Map.Entry<DefaultTextEvent, String> entry : generatedTexts.entrySet()) {
+                                result.put(entry.getKey(), writeDocument(entry.getKey(), entry.getValue()));
+                            }
+                            PsiDocumentManager.getInstance(project).commitAllDocuments();
+                        })
+        );
+        return result;
+    }
+
+    /**
+     * 放弃所有尚未写出的事件。
+     */
+    @Override
+    public void close() {
+        pendingEvents.clear();
+        pendingCommonEvents.clear();
+    }
+
+    /**
+     * 创建一个尚不存在的公共类文件，必须在写操作中调用；文件已存在时保持不变。
+     *
+     * @param commonTextEvent 公共类事件对象
+     * @param generatedText   生成的公共类文本
+     */
+    private void writeCommonFile(CommonTextEvent commonTextEvent, String generatedText) {
+        String fileName = SettingsManager.INSTANCE.getCommonClassName() + ".java";
+        try {
+            VirtualFile directory = VfsUtil.createDirectoryIfMissing(commonTextEvent.getAbsolutePath());
+            if (directory == null || directory.findChild(fileName) != null) {
+                return;
+            }
+            PsiDirectory psiDirectory = PsiManager.getInstance(project).findDirectory(directory);
+            if (psiDirectory == null) {
+                return;
+            }
+            psiDirectory.add(PsiFileFactory.getInstance(project)
+                    .createFileFromText(fileName, JavaFileType.INSTANCE, generatedText));
+        } catch (IOException | IncorrectOperationException e) {
+            System.err.println("Error occurred while creating common class: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 创建或更新一个测试文件，必须在写操作中调用。
+     *
+     * @param defaultTextEvent 单元测试事件对象
+     * @param generatedText    生成的测试文本
+     * @return 写出结果
+     */
+    private WriteResult writeDocument(DefaultTextEvent defaultTextEvent, String generatedText) {
+        ClassMetaInfo classMetaInfo = defaultTextEvent.getClassMetaInfo();
+        String fileName = classMetaInfo.getFinalClassName() + ".java";
+        try {
+            VirtualFile directory = VfsUtil.createDirectoryIfMissing(classMetaInfo.getFinalAbsolutePath());
+            if (directory == null) {
+                return WriteResult.FAILED;
+            }
+            VirtualFile existingFile = directory.findChild(fileName);
+            if (existingFile == null) {
+                PsiDirectory psiDirectory = PsiManager.getInstance(project).findDirectory(directory);
+                if (psiDirectory == null) {
+                    return WriteResult.FAILED;
+                }
+                PsiFile psiFile = PsiFileFactory.getInstance(project)
+                        .createFileFromText(fileName, JavaFileType.INSTANCE, generatedText);
+                psiDirectory.add(psiFile);
+                return WriteResult.WRITTEN;
+            }
+            Document document = FileDocumentManager.getInstance().getDocument(existingFile);
+            if (document == null || !document.isWritable()) {
+                return WriteResult.FAILED;
+            }
+            String content = defaultTextEvent.isMergeExisting()
+                    ? TestClassMerger.merge(project, document.getText(), generatedText)
+                    : generatedText;
+            // Document 中的换行符总是 \n
+            content = StringUtil.convertLineSeparators(content);
+            if (StringUtil.equals(document.getCharsSequence(), content)) {
+                return WriteResult.UNCHANGED;
+            }
+            document.setText(content);
+            FileDocumentManager.getInstance().saveDocument(document);
+            return WriteResult.WRITTEN;
+        } catch (IOException | IncorrectOperationException e) {
+            System.err.println("Error occurred while writing to document: " + e.getMessage());
+            return WriteResult.FAILED;
+        }
+    }
+
+    /**
+     * 只登记公共类事件的追加器，公共类在外部追加器 flush 时创建。
+     */
+    private class CommonDocumentAppender extends AbstractAppender<CommonTextEvent> {
+
+        private CommonDocumentAppender() {
+            this.layout = new CommonLayout<>();
+        }
+
+        @Override
+        public WriteResult append(CommonTextEvent commonTextEvent) {
+            pendingCommonEvents.add(commonTextEvent);
+            return WriteResult.QUEUED;
+        }
+    }
+}
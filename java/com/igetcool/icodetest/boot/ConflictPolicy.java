@@ -0,0 +1,130 @@
+package com.igetcool.icodetest.boot;
+
+import com.igetcool.icodetest.constants.Constants;
+import com.igetcool.icodetest.enums.ConflictAction;
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.project.Project;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * ConflictPolicy 保存当前项目中测试文件冲突的处理策略。
+ * 策略使用项目级的 PropertiesComponent 持久化，包括每个文件的选择以及"记住选择"后对新冲突使用的默认处理方式，
+ * 这样重复执行批量生成时不会再被对话框打断；记住的选择可以在设置界面中清除。
+ * 测试文件已被删除的选择在加载时丢弃，保存的列表不会无限增长。
+ */
+public class ConflictPolicy {
+
+    private static final String SEPARATOR = "=";
+
+    private final PropertiesComponent propertiesComponent;
+
+    private final Map<String, ConflictAction> choices = new LinkedHashMap<>();
+
+    private ConflictPolicy(Project project) {
+        this.propertiesComponent = PropertiesComponent.getInstance(project);
+        List<String> values = propertiesComponent.getList(Constants.SETTINGS_PLUGIN_CONFLICT_CHOICES);
+        if (values != null) {
+            for (String value : values) {
+                int index = value.lastIndexOf(SEPARATOR);
+                if (index <= 0) {
+                    continue;
+                }
+                String path = value.substring(0, index);
+                ConflictAction action = parse(value.substring(index + 1));
+                if (action != null && Files.exists(Path.of(path))) {
+                    choices.put(path, action);
+                }
+            }
+            if (choices.size() != values.size()) {
+                saveChoices();
+            }
+        }
+    }
+
+    /**
+     * 加载指定项目的冲突处理策略。
+     *
+     * @param project 当前项目
+     * @return 冲突处理策略
+     */
+    public static ConflictPolicy load(Project project) {
+        return new ConflictPolicy(project);
+    }
+
+    /**
+     * 查找指定目标文件的处理方式。
+     *
+     * @param finalFullPath 目标测试文件的全路径
+     * @return 已保存的处理方式；如果从未选择过且未开启"记住选择"，则返回null
+     */
+    public ConflictAction find(String finalFullPath) {
+        ConflictAction action = choices.get(finalFullPath);
+        if (action != null) {
+            return action;
+        }
+        if (propertiesComponent.getBoolean(Constants.SETTINGS_PLUGIN_CONFLICT_REMEMBER, false)) {
+            return parse(propertiesComponent.getValue(Constants.SETTINGS_PLUGIN_CONFLICT_DEFAULT));
+        }
+        return null;
+    }
+
+    /**
+     * 记住本次的选择，之后的批量生成直接使用。
+     * 重命名每次都会生成一个新的测试文件，因此不作为文件的选择保存；
+     * 用户没有明确选择默认处理方式或者默认处理方式为重命名时，只保存每个文件的选择，新的冲突仍然弹出对话框。
+     *
+     * @param newChoices    本次每个文件的处理方式
+     * @param defaultAction 用户明确选择的、对之后出现的新冲突使用的处理方式，没有选择时为null
+     */
+    public void remember(Map<String, ConflictAction> newChoices, ConflictAction defaultAction) {
+        for (Map.Entry<String, ConflictAction> entry : newChoices.entrySet()) {
+            if (entry.getValue() == ConflictAction.RENAME) {
+                choices.remove(entry.getKey());
+            } else {
+                choices.put(entry.getKey(), entry.getValue());
+            }
+        }
+        saveChoices();
+        if (defaultAction == null || defaultAction == ConflictAction.RENAME) {
+            propertiesComponent.unsetValue(Constants.SETTINGS_PLUGIN_CONFLICT_DEFAULT);
+            propertiesComponent.unsetValue(Constants.SETTINGS_PLUGIN_CONFLICT_REMEMBER);
+        } else {
+            propertiesComponent.setValue(Constants.SETTINGS_PLUGIN_CONFLICT_DEFAULT, defaultAction.name());
+            propertiesComponent.setValue(Constants.SETTINGS_PLUGIN_CONFLICT_REMEMBER, true);
+        }
+    }
+
+    private void saveChoices() {
+        List<String> values = new ArrayList<>();
+        for (Map.Entry<String, ConflictAction> entry : choices.entrySet()) {
+            values.add(entry.getKey() + SEPARATOR + entry.getValue().name());
+        }
+        propertiesComponent.setList(Constants.SETTINGS_PLUGIN_CONFLICT_CHOICES, values);
+    }
+
+    /**
+     * 清除指定项目中记住的所有选择，之后的批量生成重新弹出冲突处理对话框。
+     *
+     * @param project 当前项目
+     */
+    public static void reset(Project project) {
+        PropertiesComponent propertiesComponent = PropertiesComponent.getInstance(project);
+        propertiesComponent.unsetValue(Constants.SETTINGS_PLUGIN_CONFLICT_CHOICES);
+        propertiesComponent.unsetValue(Constants.SETTINGS_PLUGIN_CONFLICT_DEFAULT);
+        propertiesComponent.unsetValue(Constants.SETTINGS_PLUGIN_CONFLICT_REMEMBER);
+    }
+
+    private static ConflictAction parse(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return ConflictAction.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.igetcool.icodetest.boot;
+
+import com.igetcool.icodetest.enums.WriteResult;
+import com.igetcool.icodetest.models.*;
+import com.igetcool.icodetest.utils.FileProcessor;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * GenerationManifest 记录每个源文件上次成功生成测试时的指纹，用于增量生成。
+ * 指纹由注入字段、选中的方法、方法中调用的注入字段方法签名以及影响生成结果的设置计算得到，
+ * 指纹未变化且测试文件仍然存在的类不需要重新生成。
+ * 清单按模块分别保存在 IDE 系统目录下（与持久化的提取缓存相邻），不写入项目的 workspace.xml；
+ * 每行一条记录，包括源文件路径、测试文件路径与指纹。
+ */
+public class GenerationManifest {
+
+    private static final Logger LOG = Logger.getInstance(GenerationManifest.class);
+
+    private static final String SEPARATOR = "\t";
+
+    /**
+     * 指纹格式的版本，生成逻辑或指纹的内容发生变化时递增，使旧的指纹全部失效。
+     */
+    private static final String FINGERPRINT_VERSION = "2";
+
+    /**
+     * 清单文件格式的版本，格式变化时递增，旧的清单文件不再被读取。
+     */
+    private static final int STORAGE_VERSION = 1;
+
+    private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+
+    private static final String NO_MODULE = "";
+
+    /**
+     * 保存当前项目各模块清单文件的目录。
+     */
+    private final Path storageDirectory;
+
+    /**
+     * 影响生成结果的设置，参与每个类的指纹计算。
+     */
+    private final String settingsText;
+
+    /**
+     * 以模块名称为键的清单，模块的清单在第一次用到时加载。
+     */
+    private final Map<String, Map<String, Entry>> modules = new HashMap<>();
+
+    /**
+     * 本次被修改、需要保存的模块。
+     */
+    private final Set<String> modifiedModules = new HashSet<>();
+
+    private GenerationManifest(Project project) {
+        this.storageDirectory = Path.of(PathManager.getSystemPath(), "icodetest", "manifest", project.getLocationHash());
+        // 通用类的包名与类名决定了测试类的 extends 与 import
+        this.settingsText = String.join(SEPARATOR,
+                FINGERPRINT_VERSION,
+                SettingsManager.INSTANCE.getJUnitVersion(),
+                SettingsManager.INSTANCE.getCommonPackageName(),
+                SettingsManager.INSTANCE.getCommonClassName(),
+                SettingsManager.INSTANCE.getRequestStyle(),
+                SettingsManager.INSTANCE.getMethodTemplateCall(),
+                SettingsManager.INSTANCE.getMethodTemplateMock(),
+                String.valueOf(SettingsManager.INSTANCE.getFixtureDepth()),
+                String.valueOf(SettingsManager.INSTANCE.getCollectionSize())
+        );
+    }
+
+    /**
+     * 加载指定项目的生成清单，应在每次批量生成开始时加载，以使用当前的设置计算指纹。
+     *
+     * @param project 当前项目
+     * @return 生成清单
+     */
+    public static GenerationManifest load(Project project) {
+        return new GenerationManifest(project);
+    }
+
+    /**
+     * 计算类的指纹。指纹只依赖提取得到的快照，可以在任意线程中计算。
+     *
+     * @param classMetaInfo 类的元信息
+     * @return 十六进制的指纹
+     */
+    public String fingerprint(ClassMetaInfo classMetaInfo) {
+        StringBuilder text = new StringBuilder(settingsText);
+        Map<TypeInfo, Integer> appendedTypes = new IdentityHashMap<>();
+        text.append('\n').append(classMetaInfo.getQualifiedClassName())
+                .append(SEPARATOR).append(classMetaInfo.getRequestMappingUri());
+        for (FieldInfo fieldInfo : classMetaInfo.getClassFields()) {
+            text.append("\nfield ").append(fieldInfo.getName()).append(SEPARATOR);
+            appendType(text, fieldInfo.getType(), appendedTypes);
+        }
+        for (MethodCoreBase methodCoreBase : classMetaInfo.getMethodCoreBases()) {
+            MethodMetaInfo methodMetaInfo = methodCoreBase.getMethodMetaInfo();
+            text.append("\nmethod ").append(methodMetaInfo.getMethodName())
+                    .append(SEPARATOR).append(methodMetaInfo.getRequestType())
+                    .append(SEPARATOR).append(methodMetaInfo.getRequestUri());
+            appendSignature(text, methodMetaInfo.getArgsNameAndTypes(), methodMetaInfo.getReturnType(), appendedTypes);
+            for (MethodCallInfo methodCallInfo : methodCoreBase.getMethodCallInfos()) {
+                for (CallSiteInfo callSite : methodCallInfo.getCallSites()) {
+                    text.append("\ncall ").append(methodCallInfo.getFieldName()).append('.').append(callSite.getMethodName());
+                    appendSignature(text, callSite.getArgsNameAndTypes(), callSite.getReturnType(), appendedTypes);
+                }
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+            return StringUtil.toHexString(digest.digest(text.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 判断类的测试是否已经是最新的：上次成功生成时的指纹与当前指纹相同，并且测试文件仍然存在。
+     *
+     * @param classMetaInfo 类的元信息
+     * @param fingerprint   当前的指纹
+     * @return 不需要重新生成时返回true
+     */
+    public synchronized boolean isUpToDate(ClassMetaInfo classMetaInfo, String fingerprint) {
+        Entry entry = getModule(classMetaInfo.getModuleName()).get(classMetaInfo.getAbsolutePath());
+        return entry != null
+                && entry.fingerprint.equals(fingerprint)
+                && Files.exists(Path.of(entry.testPath));
+    }
+
+    /**
+     * 记录一次成功的生成。
+     *
+     * @param classMetaInfo 类的元信息，测试文件路径取最终的全路径
+     * @param fingerprint   生成时的指纹
+     */
+    public synchronized void record(ClassMetaInfo classMetaInfo, String fingerprint) {
+        String moduleName = Objects.toString(classMetaInfo.getModuleName(), NO_MODULE);
+        getModule(moduleName).put(
+                classMetaInfo.getAbsolutePath(),
+                new Entry(classMetaInfo.getFinalFullPath(), fingerprint)
+        );
+        modifiedModules.add(moduleName);
+    }
+
+    /**
+     * 查找本次用到的模块中，源文件已被删除的测试文件。
+     * 测试文件也已不存在的记录直接从清单中移除；测试文件仍然存在的记录保留，之后的生成会继续报告。
+     *
+     * @return 孤立的测试文件路径
+     */
+    public synchronized List<String> findOrphanedTests() {
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Entry>> module : modules.entrySet()) {
+            Iterator<Map.Entry<String, Entry>> iterator = module.getValue().entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry> entry = iterator.next();
+                if (Files.exists(Path.of(entry.getKey()))) {
+                    continue;
+                }
+                if (Files.exists(Path.of(entry.getValue().testPath))) {
+                    result.add(entry.getValue().testPath);
+                } else {
+                    iterator.remove();
+                    modifiedModules.add(module.getKey());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 保存本次被修改的模块的清单，写入失败时只记录日志，下次生成时重新生成这些类。
+     */
+    public synchronized void save() {
+        for (String moduleName : modifiedModules) {
+            WriteResult writeResult = FileProcessor.writeFile(
+                    storageDirectory.toString(),
+                    getStorageFileName(moduleName),
+                    writer -> {
+                        for (Map.Entry<String, Entry> entry : modules.get(moduleName).entrySet()) {
+                            writer.write(entry.getKey() + SEPARATOR + entry.getValue().testPath + SEPARATOR + entry.getValue().fingerprint);
+                            writer.write('\n');
+                        }
+                    },
+                    true
+            );
+            if (!writeResult.isSuccess()) {
+                LOG.warn("Unable to save generation manifest of module: " + moduleName);
+            }
+        }
+        modifiedModules.clear();
+    }
+
+    private Map<String, Entry> getModule(String moduleName) {
+        return modules.computeIfAbsent(Objects.toString(moduleName, NO_MODULE), this::loadModule);
+    }
+
+    private Map<String, Entry> loadModule(String moduleName) {
+        Map<String, Entry> result = new LinkedHashMap<>();
+        Path storageFile = storageDirectory.resolve(getStorageFileName(moduleName));
+        List<String> values = null;
+        if (Files.exists(storageFile)) {
+            try {
+                values = Files.readAllLines(storageFile, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                // 清单文件损坏时按空清单处理，本次生成后重新写入
+                LOG.warn("Unable to read generation manifest: " + storageFile, e);
+            }
+        }
+        if (values != null) {
+            for (String value : values) {
+                String[] parts = value.split(SEPARATOR);
+                if (parts.length == 3) {
+                    result.put(parts[0], new Entry(parts[1], parts[2]));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 模块名中可能含有不能用作文件名的字符，清理后附加原名的哈希值以避免冲突。
+     */
+    private static String getStorageFileName(String moduleName) {
+        return FileUtil.sanitizeFileName(moduleName, false)
+                + "-" + Integer.toHexString(moduleName.hashCode())
+                + ".v" + STORAGE_VERSION;
+    }
+
+    private static void appendSignature(
+            StringBuilder text,
+            Map<String, TypeInfo> argsNameAndTypes,
+            TypeInfo returnType,
+            Map<TypeInfo, Integer> appendedTypes
+    ) {
+        text.append('(');
+        appendTypeMap(text, argsNameAndTypes, appendedTypes);
+        text.append(")");
+        appendType(text, returnType, appendedTypes);
+    }
+
+    private static void appendTypeMap(StringBuilder text, Map<String, TypeInfo> types, Map<TypeInfo, Integer> appendedTypes) {
+        if (types == null) {
+            return;
+        }
+        for (Map.Entry<String, TypeInfo> entry : types.entrySet()) {
+            text.append(entry.getKey()).append(' ');
+            appendType(text, entry.getValue(), appendedTypes);
+            text.append(',');
+        }
+    }
+
+    /**
+     * 写入类型、它的 setter 以及元素类型和嵌套类型，这些内容共同决定了生成的测试数据对象。
+     * setter 的默认值随参数类型变化，因此与方法名一起写入。
+     * 同一个类型实例再次出现时只写入序号，既避免重复展开，也不会因为循环引用而无限递归。
+     */
+    private static void appendType(StringBuilder text, TypeInfo typeInfo, Map<TypeInfo, Integer> appendedTypes) {
+        if (typeInfo == null) {
+            text.append("null");
+            return;
+        }
+        Integer index = appendedTypes.get(typeInfo);
+        if (index != null) {
+            text.append('#').append(index);
+            return;
+        }
+        appendedTypes.put(typeInfo, appendedTypes.size());
+        text.append(typeInfo.getCanonicalText())
+                .append('=').append(typeInfo.getDefaultValue())
+                .append('|').append(typeInfo.getDefaultValueTemplate());
+        List<SetterInfo> setters = typeInfo.getSetters();
+        if (setters != null && !setters.isEmpty()) {
+            text.append('{');
+            for (SetterInfo setter : setters) {
+                text.append(setter.getMethodName())
+                        .append('=').append(setter.getDefaultValue())
+                        .append('|').append(setter.getNestedTypeName())
+                        .append('|').append(setter.getDefaultValueTemplate())
+                        .append(';');
+            }
+            text.append('}');
+        }
+        if (typeInfo.getElementType() != null) {
+            text.append('<');
+            appendType(text, typeInfo.getElementType(), appendedTypes);
+            text.append('>');
+        }
+        if (typeInfo.getNestedTypes() != null && !typeInfo.getNestedTypes().isEmpty()) {
+            text.append('[');
+            appendTypeMap(text, typeInfo.getNestedTypes(), appendedTypes);
+            text.append(']');
+        }
+    }
+
+    private static final class Entry {
+
+        private final String testPath;
+
+        private final String fingerprint;
+
+        private Entry(String testPath, String fingerprint) {
+            this.testPath = testPath;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
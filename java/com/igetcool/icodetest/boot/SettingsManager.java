@@ -48,6 +48,46 @@ public enum SettingsManager {
      */
     private String commonClassBody5;
 
+    /**
+     * 并行生成设置。
+     * 开启后批量生成时按文件并行提取元信息并生成测试代码。
+     */
+    private boolean parallelGeneration;
+
+    /**
+     * 通过 IDE 文档写出设置。
+     * 开启后测试文件通过 VFS 与 Document 在一次可撤销的写命令中写出，否则直接写入磁盘。
+     */
+    private boolean documentWrite;
+
+    /**
+     * 增量生成设置。
+     * 开启后只为上次成功生成之后指纹发生变化的类重新生成测试，详见 GenerationManifest。
+     */
+    private boolean incrementalGeneration;
+
+    /**
+     * 测试数据对象的嵌套深度设置。
+     * 自定义类型的 setter 参数如果也是自定义类型，最多向下构造这么多层，0 表示只填充第一层。
+     */
+    private int fixtureDepth;
+
+    /**
+     * 集合类测试数据的元素个数设置。
+     * List、Set、数组、Optional、Page 等容器类型的默认值按该个数填充元素，0 表示使用空容器。
+     */
+    private int collectionSize;
+
+    /**
+     * MethodCall 风格的测试方法模板设置。
+     */
+    private String methodTemplateCall;
+
+    /**
+     * MockMvc 风格的测试方法模板设置。
+     */
+    private String methodTemplateMock;
+
     SettingsManager() {
         this.jUnitVersion = Constants.DEFAULT_VERSION_JUNIT_4;
         this.requestStyle = Constants.DEFAULT_REQUEST_STYLE_CALL;
@@ -55,6 +95,13 @@ public enum SettingsManager {
         this.commonClassName = Constants.DEFAULT_COMMON_CLASS_NAME;
         this.commonClassBody4 = Constants.DEFAULT_COMMON_CLASS_BODY_4;
         this.commonClassBody5 = Constants.DEFAULT_COMMON_CLASS_BODY_5;
+        this.parallelGeneration = Constants.DEFAULT_PARALLEL_GENERATION;
+        this.documentWrite = Constants.DEFAULT_DOCUMENT_WRITE;
+        this.incrementalGeneration = Constants.DEFAULT_INCREMENTAL_GENERATION;
+        this.fixtureDepth = Constants.DEFAULT_FIXTURE_DEPTH;
+        this.collectionSize = Constants.DEFAULT_COLLECTION_SIZE;
+        this.methodTemplateCall = Constants.DEFAULT_METHOD_TEMPLATE_CALL;
+        this.methodTemplateMock = Constants.DEFAULT_METHOD_TEMPLATE_MOCK;
     }
 
     /**
@@ -70,6 +117,13 @@ public enum SettingsManager {
             commonClassName = propertiesComponent.getValue(Constants.SETTINGS_PLUGIN_CLASS_NAME, Constants.DEFAULT_COMMON_CLASS_NAME);
             commonClassBody4 = propertiesComponent.getValue(Constants.SETTINGS_PLUGIN_CLASS_BODY4, Constants.DEFAULT_COMMON_CLASS_BODY_4);
             commonClassBody5 = propertiesComponent.getValue(Constants.SETTINGS_PLUGIN_CLASS_BODY5, Constants.DEFAULT_COMMON_CLASS_BODY_5);
+            parallelGeneration = propertiesComponent.getBoolean(Constants.SETTINGS_PLUGIN_PARALLEL, Constants.DEFAULT_PARALLEL_GENERATION);
+            documentWrite = propertiesComponent.getBoolean(Constants.SETTINGS_PLUGIN_DOCUMENT_WRITE, Constants.DEFAULT_DOCUMENT_WRITE);
+            incrementalGeneration = propertiesComponent.getBoolean(Constants.SETTINGS_PLUGIN_INCREMENTAL, Constants.DEFAULT_INCREMENTAL_GENERATION);
+            fixtureDepth = propertiesComponent.getInt(Constants.SETTINGS_PLUGIN_FIXTURE_DEPTH, Constants.DEFAULT_FIXTURE_DEPTH);
+            collectionSize = propertiesComponent.getInt(Constants.SETTINGS_PLUGIN_COLLECTION_SIZE, Constants.DEFAULT_COLLECTION_SIZE);
+            methodTemplateCall = propertiesComponent.getValue(Constants.SETTINGS_PLUGIN_METHOD_TEMPLATE_CALL, Constants.DEFAULT_METHOD_TEMPLATE_CALL);
+            methodTemplateMock = propertiesComponent.getValue(Constants.SETTINGS_PLUGIN_METHOD_TEMPLATE_MOCK, Constants.DEFAULT_METHOD_TEMPLATE_MOCK);
         } catch (Exception e) {
             throw new IllegalStateException("Failed to load settings", e);
         }
@@ -99,6 +153,34 @@ public enum SettingsManager {
         return commonClassBody5;
     }
 
+    public boolean isParallelGeneration() {
+        return parallelGeneration;
+    }
+
+    public boolean isDocumentWrite() {
+        return documentWrite;
+    }
+
+    public boolean isIncrementalGeneration() {
+        return incrementalGeneration;
+    }
+
+    public int getFixtureDepth() {
+        return fixtureDepth;
+    }
+
+    public int getCollectionSize() {
+        return collectionSize;
+    }
+
+    public String getMethodTemplateCall() {
+        return methodTemplateCall;
+    }
+
+    public String getMethodTemplateMock() {
+        return methodTemplateMock;
+    }
+
     /**
      * 获取公共类体。
      * 根据当前设置的JUnit版本返回相应的公共类体内容。
@@ -38,6 +38,16 @@ public class Constants {
     public static final String SETTINGS_PLUGIN_CLASS_NAME = "icodetest.plugin.common.className";
     public static final String SETTINGS_PLUGIN_CLASS_BODY4 = "icodetest.plugin.common.classBody4";
     public static final String SETTINGS_PLUGIN_CLASS_BODY5 = "icodetest.plugin.common.classBody5";
+    public static final String SETTINGS_PLUGIN_PARALLEL = "icodetest.plugin.generate.parallel";
+    public static final String SETTINGS_PLUGIN_DOCUMENT_WRITE = "icodetest.plugin.generate.documentWrite";
+    public static final String SETTINGS_PLUGIN_INCREMENTAL = "icodetest.plugin.generate.incremental";
+    public static final String SETTINGS_PLUGIN_FIXTURE_DEPTH = "icodetest.plugin.fixture.depth";
+    public static final String SETTINGS_PLUGIN_COLLECTION_SIZE = "icodetest.plugin.fixture.collectionSize";
+    public static final String SETTINGS_PLUGIN_METHOD_TEMPLATE_CALL = "icodetest.plugin.template.method.call";
+    public static final String SETTINGS_PLUGIN_METHOD_TEMPLATE_MOCK = "icodetest.plugin.template.method.mock";
+    public static final String SETTINGS_PLUGIN_CONFLICT_CHOICES = "icodetest.plugin.conflict.choices";
+    public static final String SETTINGS_PLUGIN_CONFLICT_DEFAULT = "icodetest.plugin.conflict.default";
+    public static final String SETTINGS_PLUGIN_CONFLICT_REMEMBER = "icodetest.plugin.conflict.remember";
 
     public static final String DEFAULT_VERSION_JUNIT_4 = "JUnit4";
     public static final String DEFAULT_VERSION_JUNIT_5 = "JUnit5";
@@ -54,6 +64,21 @@ public class Constants {
     public static final String DEFAULT_COMMON_PACKAGE_NAME = "com.igetcool.commons";
     public static final String DEFAULT_COMMON_CLASS_NAME = "WebMvcBase";
 
+    public static final boolean DEFAULT_PARALLEL_GENERATION = true;
+    public static final boolean DEFAULT_DOCUMENT_WRITE = false;
+    public static final boolean DEFAULT_INCREMENTAL_GENERATION = true;
+
+    public static final int DEFAULT_FIXTURE_DEPTH = 2;
+    public static final int MAX_FIXTURE_DEPTH = 5;
+
+    public static final int DEFAULT_COLLECTION_SIZE = 1;
+    public static final int MAX_COLLECTION_SIZE = 10;
+
+    /**
+     * 写出队列中最多等待写出的测试文件数，队列已满时生成等待写出线程。
+     */
+    public static final int WRITE_QUEUE_CAPACITY = 32;
+
     public static final String DEFAULT_COMMON_CLASS_BODY_4 = "package %s;/*变量1*/\n" +
             "\n" +
             "import %s;/*变量2*/\n" +
@@ -150,6 +175,45 @@ public class Constants {
             "    }\n" +
             "}";
 
+    /**
+     * 测试方法的默认模板，可用的变量：
+     * ${testMethodName} 测试方法名，${methodName} 被测方法名，${className} 被测类名，
+     * ${stubs} 注入字段的 when(...).thenReturn(...) 代码，${call} 调用被测方法的代码。
+     */
+    public static final String DEFAULT_METHOD_TEMPLATE_CALL =
+            "\t@Test\n" +
+            "\tpublic void ${testMethodName}() throws Exception {\n\n" +
+            "\t\t// when ... thenReturn ...\n\n" +
+            "${stubs}\n" +
+            "${call}\n" +
+            "\t\t// Verify the results\n\n" +
+            "\t\t// 断言对象为null或不为null: isNull() | isNotNull() \n" +
+            "\t\t// 断言字符串、集合、数组或Iterable对象为空或不为空: isEmpty() | isNotEmpty() \n" +
+            "\t\t// 断言两个对象相等: isEqualTo() \n" +
+            "\t\t//assertThat(object).isNull();\n" +
+            "\t\t//assertThat(object).isNotNull();\n" +
+            "\t\t//assertThat(object).isEmpty();\n" +
+            "\t\t//assertThat(object).isNotEmpty();\n" +
+            "\t\t//assertThat(object).isEqualTo(object);\n\n" +
+            "\t}\n";
+
+    public static final String DEFAULT_METHOD_TEMPLATE_MOCK =
+            "\t@Test\n" +
+            "\tpublic void ${testMethodName}() throws Exception {\n\n" +
+            "\t\t// when ... thenReturn ...\n\n" +
+            "${stubs}\n" +
+            "${call}\n" +
+            "\t\t// Verify the results\n\n" +
+            "\t\t// 断言对象为null或不为null: isNull() | isNotNull() \n" +
+            "\t\t// 断言字符串、集合、数组或Iterable对象为空或不为空: isEmpty() | isNotEmpty() \n" +
+            "\t\t// 断言两个对象相等: isEqualTo() \n" +
+            "\t\t//assertThat(object).isNull();\n" +
+            "\t\t//assertThat(object).isNotNull();\n" +
+            "\t\t//assertThat(object).isEmpty();\n" +
+            "\t\t//assertThat(object).isNotEmpty();\n" +
+            "\t\tassertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());\n" +
+            "\t}\n";
+
     private Constants() {
         throw new IllegalStateException("Constants cannot be instantiated.");
     }
@@ -0,0 +1,141 @@
+package com.igetcool.icodetest.dialog;
+
+import com.igetcool.icodetest.enums.ConflictAction;
+import com.igetcool.icodetest.utils.I18nUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ConflictResolutionDialog 类在批量生成开始前一次性列出所有已存在的测试文件，
+ * 并允许用户为每个文件选择处理方式（覆盖 / 跳过 / 合并 / 重命名）。
+ * 选择完成后生成过程不再被打断；勾选"记住选择"后，选择会保存为当前项目的策略。
+ * 所有文件默认跳过，避免手工修改过的测试被覆盖；只有用户在"全部设为"下拉框中明确选择过，才会把它作为之后新冲突的默认处理方式。
+ */
+public class ConflictResolutionDialog extends DialogWrapper {
+
+    private static final int COLUMN_FILE = 0;
+    private static final int COLUMN_ACTION = 1;
+
+    /**
+     * 冲突的目标测试文件全路径。
+     */
+    private final List<String> conflictPaths;
+
+    private final DefaultTableModel tableModel;
+
+    private final ComboBox<ConflictAction> applyAllComboBox;
+
+    private final JCheckBox rememberCheckBox;
+
+    /**
+     * 用户是否在"全部设为"下拉框中明确选择过处理方式。
+     */
+    private boolean defaultActionChosen;
+
+    /**
+     * 构造函数，初始化冲突处理对话框。
+     *
+     * @param project       当前的 IntelliJ IDEA 项目对象。
+     * @param conflictPaths 已存在的目标测试文件全路径。
+     */
+    public ConflictResolutionDialog(Project project, List<String> conflictPaths) {
+        super(project, true);
+        this.conflictPaths = conflictPaths;
+        this.tableModel = new DefaultTableModel(
+                new Object[]{I18nUtils.conflictColumnFile(), I18nUtils.conflictColumnAction()}, 0
+        ) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return column == COLUMN_ACTION;
+            }
+        };
+        for (String path : conflictPaths) {
+            tableModel.addRow(new Object[]{path, ConflictAction.SKIP});
+        }
+        this.applyAllComboBox = new ComboBox<>(ConflictAction.values());
+        this.applyAllComboBox.setSelectedItem(ConflictAction.SKIP);
+        this.applyAllComboBox.addActionListener(e -> {
+            defaultActionChosen = true;
+            Object selected = applyAllComboBox.getSelectedItem();
+            for (int row = 0; row < tableModel.getRowCount(); row++) {
+                tableModel.setValueAt(selected, row, COLUMN_ACTION);
+            }
+        });
+        this.rememberCheckBox = new JCheckBox(I18nUtils.conflictRemember());
+        setTitle(I18nUtils.overrideFile());
+        init();
+    }
+
+    /**
+     * 创建并返回对话框的中心面板。
+     * 中心面板包含提示、"全部设为"下拉框、文件列表以及"记住选择"复选框。
+     *
+     * @return 对话框的中心面板。
+     */
+    @Override
+    protected JComponent createCenterPanel() {
+        JBTable table = new JBTable(tableModel);
+        table.putClientProperty("terminateEditOnFocusLost", Boolean.TRUE);
+        table.getColumnModel().getColumn(COLUMN_ACTION)
+                .setCellEditor(new DefaultCellEditor(new ComboBox<>(ConflictAction.values())));
+        table.getColumnModel().getColumn(COLUMN_FILE).setPreferredWidth(560);
+        table.getColumnModel().getColumn(COLUMN_ACTION).setPreferredWidth(100);
+
+        JPanel northPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        northPanel.add(new JLabel(I18nUtils.conflictFilesExist(conflictPaths.size())));
+        northPanel.add(new JLabel(I18nUtils.conflictApplyAll()));
+        northPanel.add(applyAllComboBox);
+
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(northPanel, BorderLayout.NORTH);
+        JBScrollPane scrollPane = new JBScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(680, 320));
+        panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(rememberCheckBox, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    /**
+     * 获取每个冲突文件的处理方式。
+     *
+     * @return 以目标文件全路径为键的处理方式，顺序与构造时传入的顺序一致
+     */
+    public Map<String, ConflictAction> getChoices() {
+        Map<String, ConflictAction> result = new LinkedHashMap<>();
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            result.put(
+                    (String) tableModel.getValueAt(row, COLUMN_FILE),
+                    (ConflictAction) tableModel.getValueAt(row, COLUMN_ACTION)
+            );
+        }
+        return result;
+    }
+
+    /**
+     * 获取对之后出现的新冲突使用的处理方式，即用户在"全部设为"下拉框中明确选择的值。
+     *
+     * @return 默认处理方式，用户没有在下拉框中选择过时返回null
+     */
+    public ConflictAction getDefaultAction() {
+        return defaultActionChosen ? (ConflictAction) applyAllComboBox.getSelectedItem() : null;
+    }
+
+    /**
+     * 检查用户是否选择记住本次的选择。
+     *
+     * @return 如果用户勾选了"记住选择"，则返回 true。
+     */
+    public boolean isRemember() {
+        return rememberCheckBox.isSelected();
+    }
+}
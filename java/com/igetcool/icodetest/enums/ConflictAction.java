@@ -0,0 +1,43 @@
+package com.igetcool.icodetest.enums;
+
+/**
+ * ConflictAction枚举类定义了目标测试文件已存在时的处理方式。
+ * 批量生成前会统一确定每个冲突文件的处理方式，生成过程中不再弹出对话框。
+ */
+public enum ConflictAction {
+
+    /**
+     * 覆盖已存在的测试文件。
+     */
+    OVERWRITE("覆盖"),
+
+    /**
+     * 跳过，保留已存在的测试文件。
+     */
+    SKIP("跳过"),
+
+    /**
+     * 合并，仅把已存在文件中缺少的导入、字段和测试方法追加进去。
+     */
+    MERGE("合并"),
+
+    /**
+     * 重命名，以新的类名（例如 XxxTest1）生成另一个测试文件。
+     */
+    RENAME("重命名");
+
+    private final String text;
+
+    ConflictAction(String text) {
+        this.text = text;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
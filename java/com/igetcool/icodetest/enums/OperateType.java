@@ -22,6 +22,18 @@ public enum OperateType {
      * 表示“当前类同级下所有类快速生成单元测试”的操作类型。
      * 此操作用于快速为当前类所在的包中的所有类生成单元测试代码。
      */
-    RECURSIVE;
+    RECURSIVE,
+
+    /**
+     * 表示“当前模块下所有类快速生成单元测试”的操作类型。
+     * 此操作基于索引收集当前类所在模块中需要生成测试的类。
+     */
+    MODULE,
+
+    /**
+     * 表示“整个项目下所有类快速生成单元测试”的操作类型。
+     * 此操作基于索引收集项目所有模块中需要生成测试的类。
+     */
+    PROJECT;
 
 }
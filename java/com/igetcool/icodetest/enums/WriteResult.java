@@ -0,0 +1,36 @@
+package com.igetcool.icodetest.enums;
+
+/**
+ * WriteResult枚举类定义了写出一个文件的结果。
+ */
+public enum WriteResult {
+
+    /**
+     * 文件已写入。
+     */
+    WRITTEN,
+
+    /**
+     * 已存在的文件内容与新内容相同，没有写入。
+     */
+    UNCHANGED,
+
+    /**
+     * 写入失败，或者文件已存在且不允许覆盖。
+     */
+    FAILED,
+
+    /**
+     * 已被追加器接受，尚未写入，最终结果由追加器的 flush 返回。
+     */
+    QUEUED;
+
+    /**
+     * 目标文件是否已经是期望的内容。
+     *
+     * @return 写入成功或内容未变化时返回 true
+     */
+    public boolean isSuccess() {
+        return this == WRITTEN || this == UNCHANGED;
+    }
+}
@@ -0,0 +1,243 @@
+package com.igetcool.icodetest.extractor;
+
+import com.igetcool.icodetest.models.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.IOUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * ClassMetaInfoExternalizer 负责 ClassMetaInfo 快照的二进制读写，供持久化的提取缓存使用。
+ * 同一个快照中重复出现的 TypeInfo 只写入一次，之后以序号引用，读取时恢复为同一个实例。
+ */
+final class ClassMetaInfoExternalizer implements DataExternalizer<ClassMetaInfo> {
+
+    static final ClassMetaInfoExternalizer INSTANCE = new ClassMetaInfoExternalizer();
+
+    private ClassMetaInfoExternalizer() {
+    }
+
+    @Override
+    public void save(DataOutput out, ClassMetaInfo classMetaInfo) throws IOException {
+        writeString(out, classMetaInfo.getAbsolutePath());
+        writeString(out, classMetaInfo.getModuleName());
+        writeString(out, classMetaInfo.getPackageName());
+        writeString(out, classMetaInfo.getClassName());
+        writeString(out, classMetaInfo.getFileName());
+        writeString(out, classMetaInfo.getPackageDirectory());
+        writeString(out, classMetaInfo.getQualifiedClassName());
+        writeString(out, classMetaInfo.getRequestMappingUri());
+        writeString(out, classMetaInfo.getFinalAbsolutePath());
+        writeString(out, classMetaInfo.getFinalClassName());
+        writeString(out, classMetaInfo.getFinalFullPath());
+        Map<TypeInfo, Integer> writtenTypes = new IdentityHashMap<>();
+        List<FieldInfo> classFields = classMetaInfo.getClassFields();
+        out.writeInt(classFields.size());
+        for (FieldInfo fieldInfo : classFields) {
+            writeString(out, fieldInfo.getName());
+            writeType(out, fieldInfo.getType(), writtenTypes);
+        }
+        List<MethodCoreBase> methodCoreBases = classMetaInfo.getMethodCoreBases();
+        out.writeInt(methodCoreBases.size());
+        for (MethodCoreBase methodCoreBase : methodCoreBases) {
+            MethodMetaInfo methodMetaInfo = methodCoreBase.getMethodMetaInfo();
+            writeString(out, methodMetaInfo.getMethodName());
+            writeString(out, methodMetaInfo.getRequestUri());
+            writeString(out, methodMetaInfo.getRequestType());
+            writeString(out, methodMetaInfo.getMethodBody());
+            writeTypeMap(out, methodMetaInfo.getArgsNameAndTypes(), writtenTypes);
+            writeType(out, methodMetaInfo.getReturnType(), writtenTypes);
+            List<MethodCallInfo> methodCallInfos = methodCoreBase.getMethodCallInfos();
+            out.writeInt(methodCallInfos.size());
+            for (MethodCallInfo methodCallInfo : methodCallInfos) {
+                writeString(out, methodCallInfo.getFieldName());
+                out.writeInt(methodCallInfo.getCallSites().size());
+                for (CallSiteInfo callSite : methodCallInfo.getCallSites()) {
+                    writeString(out, callSite.getMethodName());
+                    writeTypeMap(out, callSite.getArgsNameAndTypes(), writtenTypes);
+                    writeType(out, callSite.getReturnType(), writtenTypes);
+                }
+            }
+        }
+    }
+
+    @Override
+    public ClassMetaInfo read(DataInput in) throws IOException {
+        ClassMetaInfo classMetaInfo = new ClassMetaInfo();
+        classMetaInfo.setAbsolutePath(readString(in));
+        classMetaInfo.setModuleName(readString(in));
+        classMetaInfo.setPackageName(readString(in));
+        classMetaInfo.setClassName(readString(in));
+        classMetaInfo.setFileName(readString(in));
+        classMetaInfo.setPackageDirectory(readString(in));
+        classMetaInfo.setQualifiedClassName(readString(in));
+        classMetaInfo.setRequestMappingUri(readString(in));
+        classMetaInfo.setFinalAbsolutePath(readString(in));
+        classMetaInfo.setFinalClassName(readString(in));
+        classMetaInfo.setFinalFullPath(readString(in));
+        List<TypeInfo> readTypes = new ArrayList<>();
+        int fieldCount = in.readInt();
+        List<FieldInfo> classFields = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            String name = readString(in);
+            classFields.add(new FieldInfo(name, readType(in, readTypes)));
+        }
+        classMetaInfo.setClassFields(classFields);
+        int methodCount = in.readInt();
+        List<MethodCoreBase> methodCoreBases = new ArrayList<>(methodCount);
+        for (int i = 0; i < methodCount; i++) {
+            MethodMetaInfo methodMetaInfo = new MethodMetaInfo(readString(in));
+            methodMetaInfo.setRequestUri(readString(in));
+            methodMetaInfo.setRequestType(readString(in));
+            methodMetaInfo.setMethodBody(readString(in));
+            methodMetaInfo.setArgsNameAndTypes(readTypeMap(in, readTypes));
+            methodMetaInfo.setReturnType(readType(in, readTypes));
+            int callCount = in.readInt();
+            List<MethodCallInfo> methodCallInfos = new ArrayList<>(callCount);
+            for (int j = 0; j < callCount; j++) {
+                MethodCallInfo methodCallInfo = new MethodCallInfo(readString(in));
+                int callSiteCount = in.readInt();
+                for (int k = 0; k < callSiteCount; k++) {
+                    CallSiteInfo callSite = new CallSiteInfo(readString(in));
+                    callSite.setArgsNameAndTypes(readTypeMap(in, readTypes));
+                    callSite.setReturnType(readType(in, readTypes));
+                    methodCallInfo.addCallSite(callSite);
+                }
+                methodCallInfos.add(methodCallInfo);
+            }
+            methodCoreBases.add(new MethodCoreBase(methodMetaInfo, methodCallInfos));
+        }
+        classMetaInfo.setMethodCoreBases(methodCoreBases);
+        return classMetaInfo;
+    }
+
+    /**
+     * 写入类型。已写入过的类型只写入序号（从1开始），0 表示null，-1 表示随后是完整的类型；
+     * 完整的类型在其元素类型与嵌套类型写完之后才分配序号，与读取时的顺序一致。
+     */
+    private static void writeType(DataOutput out, TypeInfo typeInfo, Map<TypeInfo, Integer> writtenTypes) throws IOException {
+        if (typeInfo == null) {
+            out.writeInt(0);
+            return;
+        }
+        Integer index = writtenTypes.get(typeInfo);
+        if (index != null) {
+            out.writeInt(index + 1);
+            return;
+        }
+        out.writeInt(-1);
+        writeString(out, typeInfo.getCanonicalText());
+        writeString(out, typeInfo.getPresentableText());
+        writeString(out, typeInfo.getQualifiedName());
+        writeString(out, typeInfo.getClassName());
+        out.writeBoolean(typeInfo.isPrimitiveType());
+        out.writeBoolean(typeInfo.isStringType());
+        out.writeBoolean(typeInfo.isVoidType());
+        out.writeBoolean(typeInfo.isCustomType());
+        out.writeBoolean(typeInfo.isInterfaceOrAbstractClassOrEnum());
+        writeString(out, typeInfo.getDefaultValue());
+        writeString(out, typeInfo.getDefaultValueTemplate());
+        List<SetterInfo> setters = typeInfo.getSetters();
+        out.writeInt(setters.size());
+        for (SetterInfo setter : setters) {
+            writeString(out, setter.getMethodName());
+            writeString(out, setter.getDefaultValue());
+            writeString(out, setter.getNestedTypeName());
+            writeString(out, setter.getDefaultValueTemplate());
+        }
+        writeTypeMap(out, typeInfo.getNestedTypes(), writtenTypes);
+        writeType(out, typeInfo.getElementType(), writtenTypes);
+        writtenTypes.put(typeInfo, writtenTypes.size());
+    }
+
+    private static TypeInfo readType(DataInput in, List<TypeInfo> readTypes) throws IOException {
+        int marker = in.readInt();
+        if (marker == 0) {
+            return null;
+        }
+        if (marker > 0) {
+            if (marker > readTypes.size()) {
+                throw new IOException("Invalid type reference: " + marker);
+            }
+            return readTypes.get(marker - 1);
+        }
+        String canonicalText = readString(in);
+        String presentableText = readString(in);
+        String qualifiedName = readString(in);
+        String className = readString(in);
+        boolean primitiveType = in.readBoolean();
+        boolean stringType = in.readBoolean();
+        boolean voidType = in.readBoolean();
+        boolean customType = in.readBoolean();
+        boolean interfaceOrAbstractClassOrEnum = in.readBoolean();
+        String defaultValue = readString(in);
+        String defaultValueTemplate = readString(in);
+        int setterCount = in.readInt();
+        List<SetterInfo> setters = new ArrayList<>(setterCount);
+        for (int i = 0; i < setterCount; i++) {
+            setters.add(new SetterInfo(readString(in), readString(in), readString(in), readString(in)));
+        }
+        Map<String, TypeInfo> nestedTypes = readTypeMap(in, readTypes);
+        TypeInfo elementType = readType(in, readTypes);
+        TypeInfo typeInfo = new TypeInfo(
+                canonicalText,
+                presentableText,
+                qualifiedName,
+                className,
+                primitiveType,
+                stringType,
+                voidType,
+                customType,
+                interfaceOrAbstractClassOrEnum,
+                defaultValue,
+                Collections.unmodifiableList(setters),
+                nestedTypes == null ? null : Collections.unmodifiableMap(nestedTypes),
+                defaultValueTemplate,
+                elementType
+        );
+        readTypes.add(typeInfo);
+        return typeInfo;
+    }
+
+    /**
+     * 写入以名称为键的类型表，-1 表示null。
+     */
+    private static void writeTypeMap(DataOutput out, Map<String, TypeInfo> types, Map<TypeInfo, Integer> writtenTypes) throws IOException {
+        if (types == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(types.size());
+        for (Map.Entry<String, TypeInfo> entry : types.entrySet()) {
+            writeString(out, entry.getKey());
+            writeType(out, entry.getValue(), writtenTypes);
+        }
+    }
+
+    private static Map<String, TypeInfo> readTypeMap(DataInput in, List<TypeInfo> readTypes) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<String, TypeInfo> result = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            result.put(key, readType(in, readTypes));
+        }
+        return result;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            IOUtil.writeUTF(out, value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? IOUtil.readUTF(in) : null;
+    }
+}
@@ -1,8 +1,13 @@
 package com.igetcool.icodetest.extractor;
 
 import com.igetcool.icodetest.constants.Constants;
-import com.igetcool.icodetest.models.ClassMetaInfo;
+import com.igetcool.icodetest.models.*;
 import com.igetcool.icodetest.style.RequestStyleContext;
+import com.igetcool.icodetest.utils.SourceRootMapper;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
 import org.jetbrains.annotations.NotNull;
 
@@ -20,13 +25,33 @@ public class ClassMetaInfoExtractor {
 
     /**
      * 从给定的 PsiJavaFile 和相关上下文中提取类元信息。
+     * 必须在读操作中调用；返回的 ClassMetaInfo 是不再持有 PSI 对象的快照，
+     * 其中包含注入字段以及每个方法的调用信息，后续的代码生成无需持有读锁。
+     * 源文件及其依赖自上次提取以来没有变化时，直接使用持久化缓存中的快照，不解析 PSI。
      *
      * @param psiJavaFile         当前要处理的 PsiJavaFile 对象
      * @param requestStyleContext 请求风格上下文，用于确定如何提取方法
      * @param includeMethodName   如果指定，则只包含该名称的方法
+     * @param cache               当前批量生成共享的提取缓存
      * @return 一个 ClassMetaInfo 对象，其中包含提取的类元信息
      */
-    public static ClassMetaInfo extract(@NotNull PsiJavaFile psiJavaFile, RequestStyleContext requestStyleContext, String includeMethodName) {
+    public static ClassMetaInfo extract(@NotNull PsiJavaFile psiJavaFile, RequestStyleContext requestStyleContext, String includeMethodName, ExtractionCache cache) {
+        // 源码根目录与测试根目录的配置同样影响快照中的包名与目标路径
+        String variant = String.join("\n",
+                String.valueOf(SourceRootMapper.getTestDirectory(psiJavaFile.getProject(), psiJavaFile.getVirtualFile())),
+                requestStyleContext.getStyle(),
+                String.valueOf(includeMethodName),
+                String.valueOf(cache.getFixtureDepth()),
+                String.valueOf(cache.getCollectionSize())
+        );
+        return cache.getPersistentCache().getOrExtract(
+                psiJavaFile,
+                variant,
+                () -> extractFromPsi(psiJavaFile, requestStyleContext, includeMethodName, cache)
+        );
+    }
+
+    private static ClassMetaInfo extractFromPsi(PsiJavaFile psiJavaFile, RequestStyleContext requestStyleContext, String includeMethodName, ExtractionCache cache) {
         String absolutePath = getAbsolutePath(psiJavaFile);
         if (absolutePath.isEmpty()) {
             return null;
@@ -39,17 +64,21 @@ public class ClassMetaInfoExtractor {
         if (className.isEmpty()) {
             return null;
         }
-        String packageDirectory = removeSourceRootPrefix(file.getParent());
-        if (packageDirectory == null) {
+        Project project = psiJavaFile.getProject();
+        String packageDirectory = SourceRootMapper.getPackageDirectory(project, psiJavaFile.getVirtualFile());
+        String testDirectory = SourceRootMapper.getTestDirectory(project, psiJavaFile.getVirtualFile());
+        if (packageDirectory == null || testDirectory == null) {
             return null;
         }
-        String packageName = packageDirectory.replace(File.separator, ".");
-        String qualifiedClassName = packageName + "." + className;
+        String packageName = packageDirectory.replace('/', '.');
+        String qualifiedClassName = packageName.isEmpty() ? className : packageName + "." + className;
         String fileName = file.getName();
         String classRequestMappingUri = getClassRequestMappingUri(psiJavaFile);
 
         ClassMetaInfo classMetaInfo = new ClassMetaInfo();
         classMetaInfo.setAbsolutePath(absolutePath);
+        Module module = ModuleUtil.findModuleForPsiElement(psiJavaFile);
+        classMetaInfo.setModuleName(module != null ? module.getName() : null);
         classMetaInfo.setPackageName(packageName);
         classMetaInfo.setClassName(className);
         classMetaInfo.setFileName(fileName);
@@ -57,17 +86,60 @@ public class ClassMetaInfoExtractor {
         classMetaInfo.setQualifiedClassName(qualifiedClassName);
         classMetaInfo.setRequestMappingUri(classRequestMappingUri);
         List<PsiField> psiFields = filterPsiClassFields(psiJavaFile);
-        classMetaInfo.setClassFields(psiFields);
+        classMetaInfo.setClassFields(toFieldInfos(psiFields, cache));
         List<PsiMethod> psiMethods = filterPsiClassMethods(psiJavaFile, requestStyleContext, includeMethodName);
-        classMetaInfo.setClassMethods(psiMethods);
+        classMetaInfo.setMethodCoreBases(getMethodCoreBases(psiMethods, psiFields, cache));
 
-        classMetaInfo.setFinalAbsolutePath(getDirectoryPath(absolutePath));
+        classMetaInfo.setFinalAbsolutePath(testDirectory);
         classMetaInfo.setFinalClassName(String.format("%sTest", className));
         String finalFullPath = classMetaInfo.getFinalAbsolutePath() + "/" + classMetaInfo.getFinalClassName() + ".java";
         classMetaInfo.setFinalFullPath(finalFullPath);
         return classMetaInfo;
     }
 
+    /**
+     * 将注入字段转换为不可变的字段快照。
+     *
+     * @param psiFields 注入字段列表
+     * @param cache     当前批量生成共享的提取缓存
+     * @return 字段快照列表
+     */
+    private static List<FieldInfo> toFieldInfos(List<PsiField> psiFields, ExtractionCache cache) {
+        List<FieldInfo> result = new ArrayList<>();
+        for (PsiField field : psiFields) {
+            result.add(new FieldInfo(field.getName(), TypeInfoExtractor.extract(field.getType(), cache)));
+        }
+        return result;
+    }
+
+    /**
+     * 提取每个方法的元信息以及方法体内对注入字段的调用信息。
+     * 没有调用任何注入字段的方法不会出现在结果中。
+     *
+     * @param classMethods 要生成测试的方法列表
+     * @param classFields  注入字段列表
+     * @param cache        当前批量生成共享的提取缓存
+     * @return 方法核心信息列表
+     */
+    private static List<MethodCoreBase> getMethodCoreBases(
+            List<PsiMethod> classMethods,
+            List<PsiField> classFields,
+            ExtractionCache cache
+    ) {
+        List<MethodCoreBase> result = new ArrayList<>();
+        if (classFields.isEmpty()) {
+            return result;
+        }
+        for (PsiMethod method : classMethods) {
+            MethodMetaInfo methodMetaInfo = MethodMetaInfoExtractor.extract(method, cache);
+            List<MethodCallInfo> methodCallInfos = MethodCallInfoExtractor.extract(method, classFields, cache);
+            if (!methodCallInfos.isEmpty()) {
+                result.add(new MethodCoreBase(methodMetaInfo, methodCallInfos));
+            }
+        }
+        return result;
+    }
+
     /**
      * 从 PsiJavaFile 中提取所有带有 @Autowired 或 @Resource 注解的字段。
      *
@@ -78,6 +150,7 @@ public class ClassMetaInfoExtractor {
         List<PsiField> result = new ArrayList<>();
         for (PsiClass psiClass : psiJavaFile.getClasses()) {
             for (PsiField field : psiClass.getFields()) {
+                ProgressManager.checkCanceled();
                 if (hasAutowiredOrResourceAnnotation(field)) {
                     result.add(field);
                 }
@@ -114,6 +187,7 @@ public class ClassMetaInfoExtractor {
         List<PsiMethod> result = new ArrayList<>();
         for (PsiClass psiClass : psiJavaFile.getClasses()) {
             for (PsiMethod psiMethod : psiClass.getMethods()) {
+                ProgressManager.checkCanceled();
                 if (Objects.equals(Constants.DEFAULT_REQUEST_STYLE_CALL, style)) {
                     // 检查是否是 抽象方法 和 私有方法
                     boolean isAbstract = psiMethod.hasModifierProperty(PsiModifier.ABSTRACT);
@@ -160,25 +234,6 @@ public class ClassMetaInfoExtractor {
         return fileName;
     }
 
-    /**
-     * 从路径中移除源代码根目录的前缀。
-     * <p>
-     * 该方法用于处理文件路径，移除指定的源代码根目录前缀。
-     * 这通常用于将项目特定的源代码目录结构转换为更通用的包结构表示。
-     *
-     * @param path 包含源代码根目录前缀的路径
-     * @return 移除源代码根目录前缀后的路径，或者如果路径不包含前缀，则返回null
-     */
-    private static String removeSourceRootPrefix(String path) {
-        if (path == null || path.isEmpty()) {
-            return null;
-        }
-        if (path.contains(Constants.SRC_MAIN_JAVA + "/")) {
-            return path.split(Constants.SRC_MAIN_JAVA + "/")[1];
-        }
-        return null;
-    }
-
     private static String getAbsolutePath(@NotNull PsiJavaFile psiJavaFile) {
         return psiJavaFile.getVirtualFile().getPath();
     }
@@ -251,23 +306,4 @@ public class ClassMetaInfoExtractor {
         return modifierList != null && modifierList.findAnnotation(annotationQualifiedName) != null;
     }
 
-    /**
-     * 根据类的绝对路径确定测试类的目录路径。
-     * <p>
-     * 这个方法接受一个类的绝对路径作为参数，并基于此路径来构造测试类文件的目标目录路径。
-     * 它通过截取绝对路径中表示源代码目录的部分，并将其替换为测试代码目录的相应部分来实现。
-     * 例如，它会将路径中的"/src/main/java/"替换为"/src/test/java/"，确保测试类与源类在项目结构中保持一致的层次。
-     * 这个方法假设传入的绝对路径遵循Maven标准项目结构。
-     *
-     * @param absolutePath 类的绝对路径字符串。
-     * @return 测试类文件应该存放的目录路径字符串。
-     */
-    private static String getDirectoryPath(String absolutePath) {
-        return absolutePath
-                .substring(0, absolutePath.lastIndexOf("/"))
-                .replace(
-                        Constants.SRC_MAIN_JAVA, Constants.SRC_TEST_JAVA
-                );
-    }
-
 }
@@ -0,0 +1,155 @@
+package com.igetcool.icodetest.extractor;
+
+import com.igetcool.icodetest.models.SetterInfo;
+import com.igetcool.icodetest.models.TypeClassification;
+import com.igetcool.icodetest.models.TypeInfo;
+import com.igetcool.icodetest.utils.TypeClassifier;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.util.PsiModificationTracker;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * ExtractionCache 是一次批量生成范围内共享的提取缓存，可被多个生成线程同时使用。
+ * 同一个 DTO 往往作为参数或返回值出现在成百上千个调用点中，缓存后它的 setter 列表和嵌套类型表只需从 PSI 中提取一次；
+ * 每个类型的分类结果同样只需解析一次，容器类型的类型参数也通过本缓存分类，嵌套的泛型类型不会重复解析。
+ * 缓存记录创建时的 PSI 修改计数，PSI 发生任何修改后，下一次访问时整个缓存失效。
+ */
+public class ExtractionCache {
+
+    private final PsiModificationTracker modificationTracker;
+
+    /**
+     * 测试数据对象的嵌套深度，整个批次使用同一个值。
+     */
+    private final int fixtureDepth;
+
+    /**
+     * 容器类型默认值中的元素个数，整个批次使用同一个值。
+     */
+    private final int collectionSize;
+
+    /**
+     * 以类型的完整文本为键的分类结果。
+     */
+    private final Map<String, TypeClassification> classificationsByCanonicalText = new ConcurrentHashMap<>();
+
+    /**
+     * 以类的完全限定名为键的 setter 列表。
+     */
+    private final Map<String, List<SetterInfo>> settersByQualifiedName = new ConcurrentHashMap<>();
+
+    /**
+     * 以类的完全限定名为键的嵌套类型表。
+     */
+    private final Map<String, Map<String, TypeInfo>> nestedTypesByQualifiedName = new ConcurrentHashMap<>();
+
+    /**
+     * 跨批次、跨 IDE 重启保留的 ClassMetaInfo 快照缓存。
+     */
+    private final PersistentExtractionCache persistentCache;
+
+    private volatile long modificationCount;
+
+    public ExtractionCache(Project project, int fixtureDepth, int collectionSize) {
+        this.modificationTracker = PsiModificationTracker.getInstance(project);
+        this.persistentCache = PersistentExtractionCache.getInstance(project);
+        this.modificationCount = modificationTracker.getModificationCount();
+        this.fixtureDepth = fixtureDepth;
+        this.collectionSize = collectionSize;
+    }
+
+    public int getFixtureDepth() {
+        return fixtureDepth;
+    }
+
+    public int getCollectionSize() {
+        return collectionSize;
+    }
+
+    public PersistentExtractionCache getPersistentCache() {
+        return persistentCache;
+    }
+
+    /**
+     * 获取类型的分类结果，未命中时通过 TypeClassifier.classify 一次解析得到全部分类。
+     * 必须在读操作中调用。
+     *
+     * @param psiType 要分类的类型
+     * @return 类型的分类结果
+     */
+    public TypeClassification classify(PsiType psiType) {
+        invalidateIfModified();
+        String canonicalText = psiType.getCanonicalText();
+        TypeClassification classification = classificationsByCanonicalText.get(canonicalText);
+        if (classification == null) {
+            // 不在 computeIfAbsent 中解析，避免解析期间阻塞其他线程
+            classification = TypeClassifier.classify(psiType, collectionSize, this::classify);
+            classificationsByCanonicalText.putIfAbsent(canonicalText, classification);
+        }
+        return classification;
+    }
+
+    /**
+     * 获取类的 setter 列表，未命中时使用 loader 从 PSI 中提取。
+     * 必须在读操作中调用；loader 返回的列表应不可修改，同一个类在缓存有效期内总是返回同一个列表实例。
+     *
+     * @param psiClass 要提取的类
+     * @param loader   从 PSI 中提取 setter 列表的函数
+     * @return setter 列表
+     */
+    public List<SetterInfo> getSetters(PsiClass psiClass, Function<PsiClass, List<SetterInfo>> loader) {
+        return getOrLoad(settersByQualifiedName, psiClass, loader);
+    }
+
+    /**
+     * 获取类的嵌套类型表，未命中时使用 loader 从 PSI 中提取。
+     * 必须在读操作中调用；loader 返回的表应不可修改，同一个类在缓存有效期内总是返回同一个实例。
+     *
+     * @param psiClass 要提取的类
+     * @param loader   从 PSI 中提取嵌套类型表的函数
+     * @return 嵌套类型表
+     */
+    public Map<String, TypeInfo> getNestedTypes(PsiClass psiClass, Function<PsiClass, Map<String, TypeInfo>> loader) {
+        return getOrLoad(nestedTypesByQualifiedName, psiClass, loader);
+    }
+
+    private <T> T getOrLoad(Map<String, T> cache, PsiClass psiClass, Function<PsiClass, T> loader) {
+        String qualifiedName = psiClass.getQualifiedName();
+        if (qualifiedName == null) { // 匿名类或局部类无法作为缓存的键
+            return loader.apply(psiClass);
+        }
+        invalidateIfModified();
+        T value = cache.get(qualifiedName);
+        if (value == null) {
+            value = loader.apply(psiClass);
+            T previous = cache.putIfAbsent(qualifiedName, value);
+            if (previous != null) {
+                value = previous;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 如果 PSI 在缓存创建或上次失效之后发生了修改，则清空缓存。
+     */
+    private void invalidateIfModified() {
+        long currentCount = modificationTracker.getModificationCount();
+        if (currentCount != modificationCount) {
+            synchronized (this) {
+                if (currentCount != modificationCount) {
+                    classificationsByCanonicalText.clear();
+                    settersByQualifiedName.clear();
+                    nestedTypesByQualifiedName.clear();
+                    modificationCount = currentCount;
+                }
+            }
+        }
+    }
+}
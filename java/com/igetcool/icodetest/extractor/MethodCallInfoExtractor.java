@@ -1,109 +1,120 @@
 package com.igetcool.icodetest.extractor;
 
+import com.igetcool.icodetest.models.CallSiteInfo;
 import com.igetcool.icodetest.models.MethodCallInfo;
+import com.igetcool.icodetest.models.TypeInfo;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.psi.*;
-import com.intellij.psi.util.PsiUtil;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class MethodCallInfoExtractor {
 
     /**
-     * 从方法体中提取特定字段的方法调用信息。
+     * 遍历一次方法体，提取其中对注入字段的方法调用信息。
+     * 只有限定符解析为注入字段的 PsiMethodCallExpression 才会被收集，并按字段分组，
+     * 因此开销只与方法体的大小成正比，与字段数量无关。
+     * 每个字段会记录全部调用点，签名相同的调用只保留一个。
      *
-     * @param methodBody 方法体的文本内容
-     * @param field      要提取方法调用信息的字段对应的 PsiField 对象
-     * @return 如果找到方法调用，返回包含方法调用信息的 MethodCallInfo 对象；否则返回 null
+     * @param method 要分析的方法
+     * @param fields 注入字段列表
+     * @param cache  当前批量生成共享的提取缓存
+     * @return 方法调用信息列表，顺序与字段顺序一致；没有被调用的字段不在其中
      */
-    public static MethodCallInfo extract(
-            String methodBody,
-            PsiField field
+    public static List<MethodCallInfo> extract(
+            PsiMethod method,
+            List<PsiField> fields,
+            ExtractionCache cache
     ) {
-        Pattern pattern = Pattern.compile(
-                field.getName() +
-                        "\\s*\\.\\s*" +                // 匹配点和空白字符
-                        "(\\w+)" +                     // 匹配方法名（\w 包括字母、数字、下划线，加号确保至少有一个字符）
-                        "\\s*\\(" +                    // 匹配空白字符和左括号
-                        "(.*?)" +                      // 匹配参数列表，非贪婪模式
-                        "\\)"                          // 匹配右括号
-        );
-        Matcher matcher = pattern.matcher(methodBody);
-        MethodCallInfo result = new MethodCallInfo(field.getName());
-        boolean found = false;
-        while (matcher.find()) {
-            found = true; // 标记至少找到一个匹配项
-            String methodInvokeText = matcher.group();
-            String methodName = extractMethodName(methodInvokeText);
-            String methodArgs = extractMethodArguments(methodInvokeText);
-            List<String> argNameList = new ArrayList<>();
-            // 去除每个元素的空白字符
-            Collections.addAll(argNameList,
-                    Arrays
-                            .stream(
-                                    methodArgs.split(",")
-                            )
-                            .map(String::trim)
-                            .toArray(String[]::new)
-            );
-            result.setMethodName(methodName);
-            // 获取字段声明所在类
-//            PsiClass fieldClass = field.getContainingClass();
-            // 获取字段类型
-            PsiType fieldType = field.getType();
-            PsiClass fieldClass = PsiUtil.resolveClassInType(fieldType);
-            if (fieldClass != null && fieldType instanceof PsiClassType) {
-                PsiClassType classType = (PsiClassType) fieldType;
-                PsiType[] superTypes = classType.getSuperTypes();
-                for (PsiType superType : superTypes) {
-                    if (superType instanceof PsiClassType) {
-                        PsiClassType su = (PsiClassType) superType;
-                        // 获取与该类型相关联的 PsiSubstitutor
-                        PsiSubstitutor substitutor = su.resolveGenerics().getSubstitutor();
-                        // 获取所有方法
-                        PsiMethod[] methods = fieldClass.getAllMethods();
-                        for (PsiMethod fieldMethod : methods) {
-                            String name = fieldMethod.getName();
-                            if (fieldMethod.getName().equals(methodName)
-                                    && fieldMethod.getParameterList().getParameters().length == argNameList.size()) {
-                                // 使用 substitutor 替换方法返回类型中的泛型参数
-                                PsiType returnType = substitutor.substitute(fieldMethod.getReturnType());
-                                result.setReturnType(returnType);
-                                PsiParameterList parameterList = fieldMethod.getParameterList();
-                                Map<String, PsiType> params = new LinkedHashMap<>();
-                                for (PsiParameter parameter : parameterList.getParameters()) {
-                                    // 使用 substitutor 替换参数类型中的泛型参数
-                                    PsiType paramType = substitutor.substitute(parameter.getType());
-                                    params.put(parameter.getName(), paramType);
-                                }
-                                result.setArgsNameAndTypes(params);
-                            }
-                        }
+        List<MethodCallInfo> result = new ArrayList<>();
+        PsiCodeBlock body = method.getBody();
+        if (body == null || fields.isEmpty()) {
+            return result;
+        }
+        final Map<PsiField, List<PsiMethodCallExpression>> callsByField = new HashMap<>();
+        for (PsiField field : fields) {
+            callsByField.put(field, new ArrayList<>());
+        }
+        body.accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitMethodCallExpression(PsiMethodCallExpression expression) {
+                ProgressManager.checkCanceled();
+                PsiExpression qualifier = expression.getMethodExpression().getQualifierExpression();
+                if (qualifier instanceof PsiReferenceExpression) {
+                    PsiElement resolved = ((PsiReferenceExpression) qualifier).resolve();
+                    List<PsiMethodCallExpression> calls = resolved instanceof PsiField ? callsByField.get(resolved) : null;
+                    if (calls != null) {
+                        calls.add(expression);
                     }
                 }
+                super.visitMethodCallExpression(expression);
+            }
+        });
+        for (PsiField field : fields) {
+            List<PsiMethodCallExpression> calls = callsByField.get(field);
+            if (calls.isEmpty()) {
+                continue;
+            }
+            // 同一签名的调用只需要一个 mock，保留首次出现的调用点
+            MethodCallInfo methodCallInfo = new MethodCallInfo(field.getName());
+            Set<String> signatures = new HashSet<>();
+            for (PsiMethodCallExpression call : calls) {
+                JavaResolveResult resolveResult = call.resolveMethodGenerics();
+                if (signatures.add(getSignature(call, resolveResult))) {
+                    methodCallInfo.addCallSite(toCallSiteInfo(call, resolveResult, cache));
+                }
             }
+            result.add(methodCallInfo);
         }
-        return found ? result : null;
+        return result;
     }
 
     /**
-     * 从方法调用字符串中提取方法名。
+     * 将一次方法调用转换为调用点信息。
+     * 被调用的方法通过 resolveMethodGenerics 直接解析，重载由 IDE 的解析结果确定，
+     * 参数与返回类型中的泛型参数使用解析得到的 PsiSubstitutor 替换。
      *
-     * @param methodInvoke 包含方法调用的字符串
-     * @return 提取的方法名
+     * @param expression    方法调用表达式
+     * @param resolveResult 方法调用的解析结果
+     * @param cache         当前批量生成共享的提取缓存
+     * @return 调用点信息
      */
-    private static String extractMethodName(String methodInvoke) {
-        return MethodMetaInfoExtractor.extractMethodName(methodInvoke);
+    private static CallSiteInfo toCallSiteInfo(PsiMethodCallExpression expression, JavaResolveResult resolveResult, ExtractionCache cache) {
+        CallSiteInfo result = new CallSiteInfo(expression.getMethodExpression().getReferenceName());
+        PsiElement element = resolveResult.getElement();
+        if (!(element instanceof PsiMethod)) {
+            return result;
+        }
+        PsiMethod resolvedMethod = (PsiMethod) element;
+        PsiSubstitutor substitutor = resolveResult.getSubstitutor();
+        result.setReturnType(TypeInfoExtractor.extract(substitutor.substitute(resolvedMethod.getReturnType()), cache));
+        Map<String, TypeInfo> params = new LinkedHashMap<>();
+        for (PsiParameter parameter : resolvedMethod.getParameterList().getParameters()) {
+            params.put(parameter.getName(), TypeInfoExtractor.extract(substitutor.substitute(parameter.getType()), cache));
+        }
+        result.setArgsNameAndTypes(params);
+        return result;
     }
 
     /**
-     * 从方法调用字符串中提取方法参数。
+     * 获取方法调用的签名，用于调用点去重。
+     * 已解析的调用使用方法名与替换泛型后的参数类型；无法解析的调用使用方法名与参数个数。
      *
-     * @param methodInvoke 包含方法调用的字符串
-     * @return 提取的方法参数字符串
+     * @param expression    方法调用表达式
+     * @param resolveResult 方法调用的解析结果
+     * @return 调用签名
      */
-    private static String extractMethodArguments(String methodInvoke) {
-        return MethodMetaInfoExtractor.extractMethodArguments(methodInvoke);
+    private static String getSignature(PsiMethodCallExpression expression, JavaResolveResult resolveResult) {
+        String methodName = expression.getMethodExpression().getReferenceName();
+        PsiElement element = resolveResult.getElement();
+        if (!(element instanceof PsiMethod)) {
+            return methodName + "#" + expression.getArgumentList().getExpressionCount();
+        }
+        StringJoiner joiner = new StringJoiner(",", methodName + "(", ")");
+        for (PsiParameter parameter : ((PsiMethod) element).getParameterList().getParameters()) {
+            PsiType parameterType = resolveResult.getSubstitutor().substitute(parameter.getType());
+            joiner.add(parameterType == null ? "?" : parameterType.getCanonicalText());
+        }
+        return joiner.toString();
     }
 }
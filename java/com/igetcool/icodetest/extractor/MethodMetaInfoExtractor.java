@@ -2,12 +2,12 @@ package com.igetcool.icodetest.extractor;
 
 import com.igetcool.icodetest.constants.Constants;
 import com.igetcool.icodetest.models.MethodMetaInfo;
+import com.igetcool.icodetest.models.TypeInfo;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.psi.*;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * CodeExtractor 类提供了从Psi元素中提取代码元数据的功能。
@@ -18,18 +18,20 @@ public class MethodMetaInfoExtractor {
      * 从给定的PsiMethod对象中提取方法的元信息。
      *
      * @param method 要提取信息的PsiMethod对象
+     * @param cache  当前批量生成共享的提取缓存
      * @return 包含方法元信息的MethodMetaInfo对象
      */
-    public static MethodMetaInfo extract(PsiMethod method) {
+    public static MethodMetaInfo extract(PsiMethod method, ExtractionCache cache) {
+        ProgressManager.checkCanceled();
         MethodMetaInfo result = new MethodMetaInfo(method.getName());
         PsiParameterList parameterList = method.getParameterList();
-        Map<String, PsiType> params = new LinkedHashMap<>();
+        Map<String, TypeInfo> params = new LinkedHashMap<>();
         for (PsiParameter parameter : parameterList.getParameters()) {
-            params.put(parameter.getName(), parameter.getType());
+            params.put(parameter.getName(), TypeInfoExtractor.extract(parameter.getType(), cache));
         }
         result.setArgsNameAndTypes(params);
         PsiType returnType = method.getReturnType();
-        result.setReturnType(returnType);
+        result.setReturnType(TypeInfoExtractor.extract(returnType, cache));
         PsiCodeBlock body = method.getBody();
         if (body != null) {
             result.setMethodBody(body.getText());
@@ -71,33 +73,4 @@ public class MethodMetaInfoExtractor {
             }
         }
     }
-
-    /**
-     * 从给定的字符串中提取方法名。
-     *
-     * @param methodInvoke 包含方法调用的字符串
-     * @return 提取的方法名，如果没有找到，则返回null
-     */
-    public static String extractMethodName(String methodInvoke) {
-        String regex = "\\s*(\\w+)\\s*\\.\\s*(\\w+)\\s*\\(\\s*.*?\\s*\\)\\s*";
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(methodInvoke);
-        if (matcher.find()) {
-            return matcher.group(2).trim();
-        }
-        return null;
-    }
-
-    /**
-     * 从给定的字符串中提取方法的参数。
-     *
-     * @param methodInvoke 包含方法调用的字符串
-     * @return 提取的方法参数字符串
-     */
-    public static String extractMethodArguments(String methodInvoke) {
-        return methodInvoke.substring(
-                methodInvoke.indexOf('(') + 1,
-                methodInvoke.indexOf(')') + 1
-        );
-    }
 }
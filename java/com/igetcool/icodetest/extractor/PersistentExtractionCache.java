@@ -0,0 +1,367 @@
+package com.igetcool.icodetest.extractor;
+
+import com.igetcool.icodetest.models.*;
+import com.intellij.ide.plugins.PluginManager;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.extensions.PluginDescriptor;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.PersistentHashMap;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * PersistentExtractionCache 是项目级、跨 IDE 重启保留的提取缓存，保存每个源文件的 ClassMetaInfo 快照。
+ * 快照存放在 IDE 系统目录下的 PersistentHashMap 中，以源文件路径为键；
+ * 每个快照同时记录插件版本、提取参数以及源文件和它依赖的文件（字段类型、参数与返回值类型、嵌套类型及其父类所在的源文件或库文件）的时间戳与长度，
+ * 任意一项不一致时视为未命中并重新从 PSI 提取。
+ * <p>
+ * VFS 的修改计数在 IDE 重启后重新开始，因此使用文件的时间戳与长度；有未保存修改的文件既不读取也不写入缓存。
+ * 缓存是项目级服务，项目关闭时由平台释放并关闭存储文件；打开存储后在后台删除源文件已不存在的快照。
+ */
+@Service(Service.Level.PROJECT)
+public final class PersistentExtractionCache implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(PersistentExtractionCache.class);
+
+    /**
+     * 存储格式的版本，ClassMetaInfoExternalizer 的格式变化时递增，旧的存储文件不再被打开。
+     */
+    private static final int STORAGE_VERSION = 1;
+
+    private static final String UNKNOWN_PLUGIN_VERSION = "dev";
+
+    private final Path storageFile;
+
+    private final String pluginVersion;
+
+    /**
+     * 打开失败时为null，此时缓存不可用，所有访问都按未命中处理。
+     */
+    private volatile PersistentHashMap<String, Snapshot> storage;
+
+    public PersistentExtractionCache(Project project) {
+        this.storageFile = Path.of(PathManager.getSystemPath(), "icodetest", "extraction",
+                project.getLocationHash(), "snapshots.v" + STORAGE_VERSION);
+        PluginDescriptor plugin = PluginManager.getPluginByClass(PersistentExtractionCache.class);
+        this.pluginVersion = plugin != null && plugin.getVersion() != null ? plugin.getVersion() : UNKNOWN_PLUGIN_VERSION;
+        this.storage = open(storageFile);
+        if (storage != null) {
+            ApplicationManager.getApplication().executeOnPooledThread(this::evictDeletedFiles);
+        }
+    }
+
+    /**
+     * 获取项目的持久化提取缓存，第一次访问时打开存储文件，项目关闭时自动关闭。
+     *
+     * @param project 当前项目
+     * @return 持久化提取缓存
+     */
+    public static PersistentExtractionCache getInstance(Project project) {
+        return project.getService(PersistentExtractionCache.class);
+    }
+
+    /**
+     * 获取源文件的快照，未命中时使用 extractor 从 PSI 中提取并写入缓存。
+     * 必须在读操作中调用。命中时不会解析源文件的 PSI；每次返回新的快照实例，调用方可以修改其中的最终类名与路径。
+     *
+     * @param psiJavaFile 源文件
+     * @param variant     影响提取结果的参数，例如请求风格与选中的方法，不同参数的快照互不复用
+     * @param extractor   从 PSI 中提取快照的函数
+     * @return 快照，extractor 返回null时返回null
+     */
+    public ClassMetaInfo getOrExtract(PsiJavaFile psiJavaFile, String variant, Supplier<ClassMetaInfo> extractor) {
+        VirtualFile virtualFile = psiJavaFile.getVirtualFile();
+        PersistentHashMap<String, Snapshot> currentStorage = storage;
+        if (currentStorage == null || virtualFile == null || !virtualFile.isInLocalFileSystem()) {
+            return extractor.get();
+        }
+        String key = virtualFile.getPath();
+        try {
+            Snapshot snapshot = currentStorage.get(key);
+            if (snapshot != null && isValid(snapshot, variant)) {
+                return snapshot.classMetaInfo;
+            }
+        } catch (IOException | RuntimeException e) {
+            // 存储文件已损坏，丢弃后按未命中处理
+            LOG.warn("Extraction cache is corrupted, discarding it", e);
+            discard(currentStorage);
+            return extractor.get();
+        }
+        ClassMetaInfo classMetaInfo = extractor.get();
+        if (classMetaInfo == null) {
+            return null;
+        }
+        List<FileStamp> stamps = collectStamps(psiJavaFile, classMetaInfo);
+        if (stamps != null) {
+            try {
+                currentStorage.put(key, new Snapshot(pluginVersion, variant, stamps, classMetaInfo));
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Extraction cache is corrupted, discarding it", e);
+                discard(currentStorage);
+            }
+        }
+        return classMetaInfo;
+    }
+
+    @Override
+    public void dispose() {
+        PersistentHashMap<String, Snapshot> currentStorage = storage;
+        storage = null;
+        if (currentStorage != null) {
+            try {
+                currentStorage.close();
+            } catch (IOException e) {
+                LOG.warn("Unable to close extraction cache", e);
+            }
+        }
+    }
+
+    /**
+     * 删除源文件已不存在的快照。快照以源文件路径为键，文件被删除或移动后这些记录不会再被访问。
+     * 在后台线程中执行，期间缓存被关闭或损坏时直接结束，剩余的记录留到下次打开时处理。
+     */
+    private void evictDeletedFiles() {
+        PersistentHashMap<String, Snapshot> currentStorage = storage;
+        if (currentStorage == null) {
+            return;
+        }
+        try {
+            List<String> deletedKeys = new ArrayList<>();
+            currentStorage.processKeysWithExistingMapping(key -> {
+                if (!Files.exists(Path.of(key))) {
+                    deletedKeys.add(key);
+                }
+                return storage == currentStorage;
+            });
+            for (String key : deletedKeys) {
+                if (storage != currentStorage) {
+                    return;
+                }
+                currentStorage.remove(key);
+            }
+        } catch (IOException | RuntimeException e) {
+            // 项目关闭时存储可能已经关闭，忽略即可；真正的损坏会在下次读写时发现
+        }
+    }
+
+    private boolean isValid(Snapshot snapshot, String variant) {
+        if (!pluginVersion.equals(snapshot.pluginVersion) || !variant.equals(snapshot.variant)) {
+            return false;
+        }
+        LocalFileSystem localFileSystem = LocalFileSystem.getInstance();
+        for (FileStamp stamp : snapshot.stamps) {
+            VirtualFile file = localFileSystem.findFileByPath(stamp.path);
+            if (file == null || !stamp.matches(file)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 收集源文件及其依赖的源文件与库文件的时间戳。
+     *
+     * @return 时间戳列表，第一个为源文件自身；任意文件有未保存的修改时返回null，此时不写入缓存
+     */
+    private static List<FileStamp> collectStamps(PsiJavaFile psiJavaFile, ClassMetaInfo classMetaInfo) {
+        Set<String> qualifiedNames = new LinkedHashSet<>();
+        for (FieldInfo fieldInfo : classMetaInfo.getClassFields()) {
+            collectQualifiedNames(fieldInfo.getType(), qualifiedNames);
+        }
+        for (MethodCoreBase methodCoreBase : classMetaInfo.getMethodCoreBases()) {
+            MethodMetaInfo methodMetaInfo = methodCoreBase.getMethodMetaInfo();
+            collectQualifiedNames(methodMetaInfo.getArgsNameAndTypes(), methodMetaInfo.getReturnType(), qualifiedNames);
+            for (MethodCallInfo methodCallInfo : methodCoreBase.getMethodCallInfos()) {
+                for (CallSiteInfo callSite : methodCallInfo.getCallSites()) {
+                    collectQualifiedNames(callSite.getArgsNameAndTypes(), callSite.getReturnType(), qualifiedNames);
+                }
+            }
+        }
+        Map<String, VirtualFile> files = new LinkedHashMap<>();
+        files.put(psiJavaFile.getVirtualFile().getPath(), psiJavaFile.getVirtualFile());
+        JavaPsiFacade psiFacade = JavaPsiFacade.getInstance(psiJavaFile.getProject());
+        GlobalSearchScope scope = GlobalSearchScope.allScope(psiJavaFile.getProject());
+        Set<PsiClass> visited = new HashSet<>();
+        for (String qualifiedName : qualifiedNames) {
+            collectSourceFiles(psiFacade.findClass(qualifiedName, scope), visited, files);
+        }
+        FileDocumentManager fileDocumentManager = FileDocumentManager.getInstance();
+        List<FileStamp> result = new ArrayList<>(files.size());
+        for (VirtualFile file : files.values()) {
+            if (fileDocumentManager.isFileModified(file)) {
+                return null;
+            }
+            result.add(new FileStamp(file.getPath(), file.getTimeStamp(), file.getLength()));
+        }
+        return result;
+    }
+
+    /**
+     * 收集类及其父类所在的文件：本地源文件记录自身，库中的类记录所在的 jar 包，库升级或替换后快照随之失效。
+     * 不在本地文件或 jar 包中的类（例如 JDK 的 jrt 镜像）不作为依赖记录，但仍然继续查找它的父类。
+     */
+    private static void collectSourceFiles(PsiClass psiClass, Set<PsiClass> visited, Map<String, VirtualFile> files) {
+        if (psiClass == null || !visited.add(psiClass)) {
+            return;
+        }
+        PsiFile containingFile = psiClass.getContainingFile();
+        VirtualFile file = containingFile != null ? containingFile.getVirtualFile() : null;
+        VirtualFile dependency = file == null || file.isInLocalFileSystem() ? file : VfsUtilCore.getVirtualFileForJar(file);
+        if (dependency != null) {
+            files.putIfAbsent(dependency.getPath(), dependency);
+        }
+        for (PsiClass superClass : psiClass.getSupers()) {
+            collectSourceFiles(superClass, visited, files);
+        }
+    }
+
+    private static void collectQualifiedNames(Map<String, TypeInfo> argsNameAndTypes, TypeInfo returnType, Set<String> result) {
+        if (argsNameAndTypes != null) {
+            for (TypeInfo typeInfo : argsNameAndTypes.values()) {
+                collectQualifiedNames(typeInfo, result);
+            }
+        }
+        collectQualifiedNames(returnType, result);
+    }
+
+    private static void collectQualifiedNames(TypeInfo typeInfo, Set<String> result) {
+        if (typeInfo == null) {
+            return;
+        }
+        if (typeInfo.getQualifiedName() != null) {
+            result.add(typeInfo.getQualifiedName());
+        }
+        result.addAll(typeInfo.getNestedTypes().keySet());
+        collectQualifiedNames(typeInfo.getElementType(), result);
+    }
+
+    private static PersistentHashMap<String, Snapshot> open(Path storageFile) {
+        try {
+            return new PersistentHashMap<>(storageFile, EnumeratorStringDescriptor.INSTANCE, SnapshotExternalizer.INSTANCE);
+        } catch (IOException e) {
+            // 存储文件损坏或版本不兼容时删除后重建一次，仍然失败则不使用缓存
+            IOUtil.deleteAllFilesStartingWith(storageFile);
+            try {
+                return new PersistentHashMap<>(storageFile, EnumeratorStringDescriptor.INSTANCE, SnapshotExternalizer.INSTANCE);
+            } catch (IOException retry) {
+                LOG.warn("Unable to open extraction cache", retry);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 关闭并删除已损坏的存储，本次 IDE 会话中不再使用缓存，下次打开时重建。
+     */
+    private void discard(PersistentHashMap<String, Snapshot> currentStorage) {
+        synchronized (this) {
+            if (storage != currentStorage) {
+                return;
+            }
+            storage = null;
+        }
+        try {
+            currentStorage.close();
+        } catch (IOException ignored) {
+            // 存储已损坏，关闭失败不影响删除
+        }
+        IOUtil.deleteAllFilesStartingWith(storageFile);
+    }
+
+    /**
+     * 一个文件在生成快照时的时间戳与长度。
+     */
+    private static final class FileStamp {
+
+        private final String path;
+
+        private final long timeStamp;
+
+        private final long length;
+
+        private FileStamp(String path, long timeStamp, long length) {
+            this.path = path;
+            this.timeStamp = timeStamp;
+            this.length = length;
+        }
+
+        private boolean matches(VirtualFile file) {
+            return file.getTimeStamp() == timeStamp
+                    && file.getLength() == length
+                    && !FileDocumentManager.getInstance().isFileModified(file);
+        }
+    }
+
+    /**
+     * 缓存中的一条记录。
+     */
+    private static final class Snapshot {
+
+        private final String pluginVersion;
+
+        private final String variant;
+
+        private final List<FileStamp> stamps;
+
+        private final ClassMetaInfo classMetaInfo;
+
+        private Snapshot(String pluginVersion, String variant, List<FileStamp> stamps, ClassMetaInfo classMetaInfo) {
+            this.pluginVersion = pluginVersion;
+            this.variant = variant;
+            this.stamps = stamps;
+            this.classMetaInfo = classMetaInfo;
+        }
+    }
+
+    private static final class SnapshotExternalizer implements DataExternalizer<Snapshot> {
+
+        private static final SnapshotExternalizer INSTANCE = new SnapshotExternalizer();
+
+        @Override
+        public void save(DataOutput out, Snapshot snapshot) throws IOException {
+            IOUtil.writeUTF(out, snapshot.pluginVersion);
+            IOUtil.writeUTF(out, snapshot.variant);
+            out.writeInt(snapshot.stamps.size());
+            for (FileStamp stamp : snapshot.stamps) {
+                IOUtil.writeUTF(out, stamp.path);
+                out.writeLong(stamp.timeStamp);
+                out.writeLong(stamp.length);
+            }
+            ClassMetaInfoExternalizer.INSTANCE.save(out, snapshot.classMetaInfo);
+        }
+
+        @Override
+        public Snapshot read(DataInput in) throws IOException {
+            String pluginVersion = IOUtil.readUTF(in);
+            String variant = IOUtil.readUTF(in);
+            int stampCount = in.readInt();
+            List<FileStamp> stamps = new ArrayList<>(stampCount);
+            for (int i = 0; i < stampCount; i++) {
+                stamps.add(new FileStamp(IOUtil.readUTF(in), in.readLong(), in.readLong()));
+            }
+            return new Snapshot(pluginVersion, variant, stamps, ClassMetaInfoExternalizer.INSTANCE.read(in));
+        }
+    }
+}
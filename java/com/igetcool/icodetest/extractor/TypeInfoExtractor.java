@@ -0,0 +1,165 @@
+package com.igetcool.icodetest.extractor;
+
+import com.igetcool.icodetest.models.SetterInfo;
+import com.igetcool.icodetest.models.TypeClassification;
+import com.igetcool.icodetest.models.TypeInfo;
+import com.igetcool.icodetest.utils.TypeClassifier;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiUtil;
+
+import java.util.*;
+
+/**
+ * TypeInfoExtractor 负责把 PsiType 转换为不可变的 TypeInfo 快照。
+ * 必须在读操作中调用；返回的 TypeInfo 不再持有任何 PSI 对象。
+ * 类型的分类结果来自提取缓存中的分类表，每个类型在一次批量生成中只解析一次。
+ * 容器类型同时提取其元素类型，用于导入以及构造填充容器的元素对象。
+ */
+public class TypeInfoExtractor {
+
+    /**
+     * 从给定的 PsiType 中提取类型快照。
+     *
+     * @param psiType 要提取的类型，可以为null
+     * @param cache   当前批量生成共享的提取缓存
+     * @return 类型快照；如果 psiType 为null，则返回null
+     */
+    public static TypeInfo extract(PsiType psiType, ExtractionCache cache) {
+        return extract(psiType, cache, true);
+    }
+
+    /**
+     * 从给定的 PsiType 中提取类型快照。
+     *
+     * @param psiType         要提取的类型，可以为null
+     * @param cache           当前批量生成共享的提取缓存
+     * @param withNestedTypes 是否提取嵌套类型表；嵌套类型表中的类型自身不再带有嵌套类型表
+     * @return 类型快照；如果 psiType 为null，则返回null
+     */
+    private static TypeInfo extract(PsiType psiType, ExtractionCache cache, boolean withNestedTypes) {
+        if (psiType == null) {
+            return null;
+        }
+        TypeClassification classification = cache.classify(psiType);
+        List<SetterInfo> setters = null;
+        Map<String, TypeInfo> nestedTypes = null;
+        TypeInfo elementType = null;
+        PsiType elementPsiType = TypeClassifier.getElementType(psiType);
+        if (elementPsiType != null) {
+            // 容器的元素类型同样需要导入，元素为自定义类型时还需要构造元素对象
+            elementType = extract(elementPsiType, cache, withNestedTypes);
+        }
+        if (classification.isInstantiableCustomType()) {
+            PsiClass psiClass = PsiUtil.resolveClassInType(psiType);
+            if (psiClass != null) {
+                setters = cache.getSetters(psiClass, customClass -> extractSetters(customClass, cache));
+                if (withNestedTypes) {
+                    nestedTypes = cache.getNestedTypes(psiClass, rootClass -> extractNestedTypes(rootClass, cache));
+                }
+            }
+        }
+        return new TypeInfo(
+                psiType.getCanonicalText(),
+                psiType.getPresentableText(),
+                classification.getQualifiedName(),
+                classification.getClassName(),
+                classification.isPrimitiveType(),
+                classification.isStringType(),
+                classification.isVoidType(),
+                classification.isCustomType(),
+                classification.isInterfaceOrAbstractClassOrEnum(),
+                classification.getDefaultValue(),
+                setters,
+                nestedTypes,
+                classification.getDefaultValueTemplate(),
+                elementType
+        );
+    }
+
+    /**
+     * 提取类中所有以 "set" 开头的方法的参数默认值。
+     * 参数为可实例化的自定义类型，或者是元素为这类类型的容器时，同时记录该类型的完全限定名，用于构造嵌套的测试数据。
+     *
+     * @param psiClass 要提取的类
+     * @param cache    当前批量生成共享的提取缓存
+     * @return 不可修改的 setter 列表，每个参数对应一项
+     */
+    private static List<SetterInfo> extractSetters(PsiClass psiClass, ExtractionCache cache) {
+        List<SetterInfo> result = new ArrayList<>();
+        for (PsiMethod method : psiClass.getMethods()) {
+            ProgressManager.checkCanceled();
+            if (method.getName().startsWith("set")) {
+                for (PsiParameter parameter : method.getParameterList().getParameters()) {
+                    TypeClassification classification = cache.classify(parameter.getType());
+                    PsiType fixtureType = getFixtureType(parameter.getType(), classification);
+                    result.add(new SetterInfo(
+                            method.getName(),
+                            classification.getDefaultValue(),
+                            fixtureType == null ? null : cache.classify(fixtureType).getQualifiedName(),
+                            classification.getDefaultValueTemplate()
+                    ));
+                }
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * 按层次遍历 setter 参数，提取在配置深度内可达的所有可实例化的自定义类型。
+     * 已经访问过的类型（包括根类型自身）不会再次展开，因此自引用或相互引用的类型不会导致无限递归。
+     *
+     * @param rootClass 根类型
+     * @param cache     当前批量生成共享的提取缓存
+     * @return 不可修改的嵌套类型表，以类的完全限定名为键
+     */
+    private static Map<String, TypeInfo> extractNestedTypes(PsiClass rootClass, ExtractionCache cache) {
+        Map<String, TypeInfo> result = new LinkedHashMap<>();
+        Set<String> visited = new HashSet<>();
+        visited.add(rootClass.getQualifiedName());
+        List<PsiClass> currentLevel = Collections.singletonList(rootClass);
+        for (int depth = 1; depth <= cache.getFixtureDepth() && !currentLevel.isEmpty(); depth++) {
+            List<PsiClass> nextLevel = new ArrayList<>();
+            for (PsiClass psiClass : currentLevel) {
+                for (PsiMethod method : psiClass.getMethods()) {
+                    ProgressManager.checkCanceled();
+                    if (!method.getName().startsWith("set")) {
+                        continue;
+                    }
+                    for (PsiParameter parameter : method.getParameterList().getParameters()) {
+                        PsiType parameterType = getFixtureType(parameter.getType(), cache.classify(parameter.getType()));
+                        if (parameterType == null) {
+                            continue;
+                        }
+                        TypeClassification classification = cache.classify(parameterType);
+                        if (!visited.add(classification.getQualifiedName())) {
+                            continue;
+                        }
+                        PsiClass nestedClass = PsiUtil.resolveClassInType(parameterType);
+                        if (nestedClass != null) {
+                            result.put(classification.getQualifiedName(), extract(parameterType, cache, false));
+                            nextLevel.add(nestedClass);
+                        }
+                    }
+                }
+            }
+            currentLevel = nextLevel;
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 获取构造测试数据时需要实例化的类型：可实例化的自定义类型本身，或者容器中可实例化的自定义元素类型。
+     *
+     * @param psiType        参数类型
+     * @param classification 参数类型的分类结果
+     * @return 需要实例化的类型；不需要时返回null
+     */
+    private static PsiType getFixtureType(PsiType psiType, TypeClassification classification) {
+        if (classification.isInstantiableCustomType()) {
+            return psiType;
+        }
+        // 只有元素为可实例化的自定义类型的容器才有默认值模板
+        return classification.getDefaultValueTemplate() == null ? null : TypeClassifier.getElementType(psiType);
+    }
+}
@@ -3,25 +3,34 @@ package com.igetcool.icodetest.layout;
 import com.igetcool.icodetest.boot.SettingsManager;
 import com.igetcool.icodetest.models.event.CommonTextEvent;
 
+import java.io.IOException;
+import java.util.Formatter;
+
 /**
  * 单元测试公共类的布局实现类，用于生成Java类的布局代码。
  */
 public class CommonLayout<T> extends Layout<T> {
 
     /**
-     * 格式化并生成单元测试公共类的布局代码。
+     * 格式化单元测试公共类的布局代码，并直接写入给定的输出。
      *
-     * @param t 包含类信息和测试代码的事件对象。
-     * @return 格式化后的Java类布局代码字符串。
+     * @param t   包含类信息和测试代码的事件对象。
+     * @param out 布局代码的输出。
+     * @throws IOException 写入输出失败时抛出
      */
     @Override
-    public String format(T t) {
+    public void formatTo(T t, Appendable out) throws IOException {
         CommonTextEvent commonTextEvent = (CommonTextEvent) t;
-        return String.format(SettingsManager.INSTANCE.getCommonClassBody(),
+        // Formatter 不关闭，由调用方负责关闭输出
+        Formatter formatter = new Formatter(out);
+        formatter.format(SettingsManager.INSTANCE.getCommonClassBody(),
                 SettingsManager.INSTANCE.getCommonPackageName(),
                 commonTextEvent.getQualifiedName(),
                 commonTextEvent.getClassName(),
                 SettingsManager.INSTANCE.getCommonClassName()
         );
+        if (formatter.ioException() != null) {
+            throw formatter.ioException();
+        }
     }
 }
@@ -3,12 +3,10 @@ package com.igetcool.icodetest.layout;
 import com.igetcool.icodetest.boot.SettingsManager;
 import com.igetcool.icodetest.constants.Constants;
 import com.igetcool.icodetest.models.ClassMetaInfo;
+import com.igetcool.icodetest.models.TypeInfo;
 import com.igetcool.icodetest.models.event.DefaultTextEvent;
-import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiPrimitiveType;
-import com.intellij.psi.PsiType;
-import com.intellij.psi.util.PsiUtil;
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -18,38 +16,37 @@ import java.util.Set;
 public class DefaultLayout<T> extends Layout<T> {
 
     /**
-     * 格式化并生成单元测试类的布局代码。
+     * 格式化单元测试类的布局代码，并直接写入给定的输出。
+     * 导入声明、类声明、字段与方法代码依次写入，测试类字段与方法的文本不会再被复制拼接。
      *
-     * @param t 包含类信息和测试代码的事件对象。
-     * @return 格式化后的Java类布局代码字符串。
+     * @param t   包含类信息和测试代码的事件对象。
+     * @param out 布局代码的输出。
+     * @throws IOException 写入输出失败时抛出
      */
     @Override
-    public String format(T t) {
+    public void formatTo(T t, Appendable out) throws IOException {
         DefaultTextEvent defaultTextEvent = (DefaultTextEvent) t;
         final ClassMetaInfo classMetaInfo = defaultTextEvent.getClassMetaInfo();
-        final Set<PsiType> testClassImportSet = defaultTextEvent.getTestClassImportSet();
-        return fullImport(testClassImportSet, classMetaInfo) +
-                createClassDeclaration(
-                        classMetaInfo.getFinalClassName(),
-                        String.format("%s%s",
-                                defaultTextEvent.getTestClassFieldText(),
-                                defaultTextEvent.getTestClassMethodText()
-                        )
-                );
+        final Set<TypeInfo> testClassImportSet = defaultTextEvent.getTestClassImportSet();
+        appendFullImport(out, testClassImportSet, classMetaInfo);
+        appendClassDeclarationStart(out, classMetaInfo.getFinalClassName());
+        out.append(defaultTextEvent.getTestClassFieldText())
+                .append(defaultTextEvent.getTestClassMethodText());
+        appendClassDeclarationEnd(out);
     }
 
     /**
-     * 创建完整的导入声明字符串。
-     * 该方法根据提供的测试类导入集合和类元信息构建一个包含所有必需导入的字符串。
+     * 写入完整的导入声明。
+     * 该方法根据提供的测试类导入集合和类元信息写入所有必需的导入。
      * 它包括包声明、公共类导入、JUnit版本相关的导入、默认类导入，以及测试类特定的导入。
      *
-     * @param testClassImportSet 测试类需要导入的PsiType集合
+     * @param out                布局代码的输出
+     * @param testClassImportSet 测试类需要导入的TypeInfo集合
      * @param classMetaInfo      包含类元数据信息的ClassMetaInfo对象
-     * @return 构建的导入声明字符串
+     * @throws IOException 写入输出失败时抛出
      */
-    private String fullImport(Set<PsiType> testClassImportSet, ClassMetaInfo classMetaInfo) {
-        final StringBuilder result = new StringBuilder();
-        result.append(createPackageDeclaration(classMetaInfo.getPackageName()))
+    private void appendFullImport(Appendable out, Set<TypeInfo> testClassImportSet, ClassMetaInfo classMetaInfo) throws IOException {
+        out.append(createPackageDeclaration(classMetaInfo.getPackageName()))
                 // 导入测试类的公共类
                 .append(
                         createImportDeclaration(
@@ -68,14 +65,20 @@ public class DefaultLayout<T> extends Layout<T> {
                 .append(getDefaultImports());
 
         Set<String> filterImportSet = new HashSet<>();
-        // PsiType 类型不同 但文本类型的“包+类”相同，会有重复的，需要过滤
-        for (PsiType importClass : testClassImportSet) {
-            filterImportSet.add(createImportDeclaration(importClass));
+        // TypeInfo 类型不同 但文本类型的“包+类”相同，会有重复的，需要过滤
+        for (TypeInfo importClass : testClassImportSet) {
+            // 容器类型逐层导入其元素类型
+            for (TypeInfo typeInfo = importClass; typeInfo != null; typeInfo = typeInfo.getElementType()) {
+                filterImportSet.add(createImportDeclaration(typeInfo));
+                // 嵌套构造的测试数据对象同样需要导入
+                for (TypeInfo nestedType : typeInfo.getNestedTypes().values()) {
+                    filterImportSet.add(createImportDeclaration(nestedType));
+                }
+            }
         }
         for (String importStr : filterImportSet) {
-            result.append(importStr);
+            out.append(importStr);
         }
-        return result.toString();
     }
 
     /**
@@ -116,43 +119,49 @@ public class DefaultLayout<T> extends Layout<T> {
     }
 
     /**
-     * 创建一个Java类的导入声明字符串，根据PsiType类信息。
+     * 创建一个Java类的导入声明字符串，根据TypeInfo类信息。
      *
-     * @param psiType 需要导入的类的PsiType对象。
-     * @return 如果PsiType表示的类不是基本类型或java.lang包下的类，则返回包含类导入声明的字符串；否则返回空字符串。
+     * @param typeInfo 需要导入的类的TypeInfo对象。
+     * @return 如果TypeInfo表示的类不是基本类型或java.lang包下的类，则返回包含类导入声明的字符串；否则返回空字符串。
      */
-    public static String createImportDeclaration(PsiType psiType) {
-        if (psiType instanceof PsiPrimitiveType
-                || psiType.getPresentableText().startsWith("java.lang")
-                || psiType.getPresentableText().startsWith("java.util")) {
+    public static String createImportDeclaration(TypeInfo typeInfo) {
+        if (typeInfo == null
+                || typeInfo.isPrimitiveType()
+                || typeInfo.getPresentableText().startsWith("java.lang")
+                || typeInfo.getPresentableText().startsWith("java.util")) {
             return "";
         } else {
-            PsiClass psiClass = PsiUtil.resolveClassInType(psiType);
-            if (psiClass != null) {
-                String qualifiedName = psiClass.getQualifiedName();
-                if (qualifiedName == null
-                        || qualifiedName.startsWith("java.lang")
-                        || qualifiedName.startsWith("java.util")) {
-                    return "";
-                }
-                return "import " + psiClass.getQualifiedName() + ";\n";
+            String qualifiedName = typeInfo.getQualifiedName();
+            if (qualifiedName == null
+                    || qualifiedName.startsWith("java.lang")
+                    || qualifiedName.startsWith("java.util")) {
+                return "";
             }
-            return "";
+            return "import " + qualifiedName + ";\n";
         }
     }
 
     /**
-     * 创建一个带有注解的Java类声明字符串，用于生成用于测试的Java类。
+     * 写入类声明的开始部分，即类体之前的代码，例如 "public class ExampleTest extends WebMvcBase {"。
      *
+     * @param out            布局代码的输出
      * @param finalClassName 被测试的类的名称。
-     * @param finalClassBody 类体的内容，包括类的字段、方法等。
-     * @return 包含类声明和类体的完整字符串，例如 "public class ExampleTest extends WebMvcBase { ... }"。
+     * @throws IOException 写入输出失败时抛出
      */
-    public static String createClassDeclaration(String finalClassName, String finalClassBody) {
+    private static void appendClassDeclarationStart(Appendable out, String finalClassName) throws IOException {
         // String annotation1 = "@ExtendWith(SpringExtension.class)\n";
         // String annotation2 = "@WebMvcTest(" + className + ".class)\n";
-        String classDeclaration = /*annotation1 + annotation2 +*/
-                "\n" + "public class " + finalClassName;
-        return classDeclaration + " extends " + SettingsManager.INSTANCE.getCommonClassName() + " {\n\n" + finalClassBody + "\n\n} ";
+        out.append(/*annotation1 + annotation2 +*/ "\n").append("public class ").append(finalClassName)
+                .append(" extends ").append(SettingsManager.INSTANCE.getCommonClassName()).append(" {\n\n");
+    }
+
+    /**
+     * 写入类声明的结束部分，即类体之后的代码。
+     *
+     * @param out 布局代码的输出
+     * @throws IOException 写入输出失败时抛出
+     */
+    private static void appendClassDeclarationEnd(Appendable out) throws IOException {
+        out.append("\n\n} ");
     }
 }
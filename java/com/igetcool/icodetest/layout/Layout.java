@@ -1,5 +1,8 @@
 package com.igetcool.icodetest.layout;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * 布局抽象类，定义了布局生成的接口。
  * <p>
@@ -14,11 +17,32 @@ public abstract class Layout<T> {
     /**
      * 格式化并生成Java类的布局代码。
      * <p>
-     * 此方法需要被子类重写，以实现具体的布局格式生成逻辑。
      * 它接收一个包含类信息和测试代码的事件对象，并返回格式化后的Java类布局代码字符串。
+     * 需要写入文件时应使用 formatTo，直接写入输出而不构造完整的字符串。
      *
      * @param t 包含类信息和测试代码的事件对象。
      * @return 格式化后的Java类布局代码字符串。
      */
-    public abstract String format(T t);
-}
\ No newline at end of file
+    public String format(T t) {
+        StringBuilder result = new StringBuilder();
+        try {
+            formatTo(t, result);
+        } catch (IOException e) {
+            // StringBuilder 不会抛出 IOException
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    /**
+     * 格式化Java类的布局代码，并依次写入给定的输出。
+     * <p>
+     * 此方法需要被子类重写，以实现具体的布局格式生成逻辑。
+     * 各部分代码按顺序直接追加到输出中，不拼接中间字符串。
+     *
+     * @param t   包含类信息和测试代码的事件对象。
+     * @param out 布局代码的输出，例如带缓冲的文件写入器。
+     * @throws IOException 写入输出失败时抛出
+     */
+    public abstract void formatTo(T t, Appendable out) throws IOException;
+}
@@ -0,0 +1,40 @@
+package com.igetcool.icodetest.models;
+
+import java.util.Map;
+
+/**
+ * CallSiteInfo 描述方法体内对注入字段的一次方法调用（按签名去重后的调用点）。
+ * 每个 CallSiteInfo 对应生成代码中的一行 when(...).thenReturn(...)。
+ */
+public class CallSiteInfo {
+
+    private final String methodName;
+
+    private Map<String, TypeInfo> argsNameAndTypes;
+
+    private TypeInfo returnType;
+
+    public CallSiteInfo(String methodName) {
+        this.methodName = methodName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public Map<String, TypeInfo> getArgsNameAndTypes() {
+        return argsNameAndTypes;
+    }
+
+    public void setArgsNameAndTypes(Map<String, TypeInfo> argsNameAndTypes) {
+        this.argsNameAndTypes = argsNameAndTypes;
+    }
+
+    public TypeInfo getReturnType() {
+        return returnType;
+    }
+
+    public void setReturnType(TypeInfo returnType) {
+        this.returnType = returnType;
+    }
+}
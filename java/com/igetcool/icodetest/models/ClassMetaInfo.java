@@ -1,21 +1,20 @@
 package com.igetcool.icodetest.models;
 
-import com.intellij.psi.PsiField;
-import com.intellij.psi.PsiMethod;
-
 import java.util.List;
 
 public class ClassMetaInfo {
 
     private String absolutePath;
+    // 源文件所属模块的名称，不属于任何模块时为null
+    private String moduleName;
     private String packageName;
     private String className;
     private String fileName;
     private String packageDirectory;
     private String qualifiedClassName;
     private String requestMappingUri;
-    private List<PsiField> classFields;
-    private List<PsiMethod> classMethods;
+    private List<FieldInfo> classFields;
+    private List<MethodCoreBase> methodCoreBases;
 
     // 最终的输出路径:
     private String finalAbsolutePath;
@@ -32,6 +31,14 @@ public class ClassMetaInfo {
         this.absolutePath = absolutePath;
     }
 
+    public String getModuleName() {
+        return moduleName;
+    }
+
+    public void setModuleName(String moduleName) {
+        this.moduleName = moduleName;
+    }
+
     public String getPackageName() {
         return packageName;
     }
@@ -80,20 +87,20 @@ public class ClassMetaInfo {
         this.requestMappingUri = requestMappingUri;
     }
 
-    public List<PsiField> getClassFields() {
+    public List<FieldInfo> getClassFields() {
         return classFields;
     }
 
-    public void setClassFields(List<PsiField> classFields) {
+    public void setClassFields(List<FieldInfo> classFields) {
         this.classFields = classFields;
     }
 
-    public List<PsiMethod> getClassMethods() {
-        return classMethods;
+    public List<MethodCoreBase> getMethodCoreBases() {
+        return methodCoreBases;
     }
 
-    public void setClassMethods(List<PsiMethod> classMethods) {
-        this.classMethods = classMethods;
+    public void setMethodCoreBases(List<MethodCoreBase> methodCoreBases) {
+        this.methodCoreBases = methodCoreBases;
     }
 
     public String getFinalAbsolutePath() {
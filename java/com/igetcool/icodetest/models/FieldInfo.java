@@ -0,0 +1,24 @@
+package com.igetcool.icodetest.models;
+
+/**
+ * FieldInfo 是被测试类中注入字段（@Autowired/@Resource）的不可变快照。
+ */
+public final class FieldInfo {
+
+    private final String name;
+
+    private final TypeInfo type;
+
+    public FieldInfo(String name, TypeInfo type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TypeInfo getType() {
+        return type;
+    }
+}
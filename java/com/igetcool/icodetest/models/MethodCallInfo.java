@@ -1,59 +1,31 @@
 package com.igetcool.icodetest.models;
 
-import com.intellij.psi.PsiType;
-
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * MethodCallInfo 汇总被测方法中对某个注入字段的全部调用点。
+ * 调用点按签名去重，顺序与在方法体中首次出现的顺序一致。
+ */
 public class MethodCallInfo {
 
     private final String fieldName;
 
-    private String methodName;
-
-    private Map<String, PsiType> argsNameAndTypes;
-
-    private PsiType returnType;
-
-    private String methodBody;
+    private final List<CallSiteInfo> callSites = new ArrayList<>();
 
     public MethodCallInfo(String fieldName) {
         this.fieldName = fieldName;
     }
 
-
-    public String getMethodName() {
-        return methodName;
-    }
-
-    public void setMethodName(String methodName) {
-        this.methodName = methodName;
-    }
-
-    public Map<String, PsiType> getArgsNameAndTypes() {
-        return argsNameAndTypes;
-    }
-
-    public void setArgsNameAndTypes(Map<String, PsiType> argsNameAndTypes) {
-        this.argsNameAndTypes = argsNameAndTypes;
-    }
-
-    public PsiType getReturnType() {
-        return returnType;
-    }
-
-    public void setReturnType(PsiType returnType) {
-        this.returnType = returnType;
-    }
-
-    public String getMethodBody() {
-        return methodBody;
+    public String getFieldName() {
+        return fieldName;
     }
 
-    public void setMethodBody(String methodBody) {
-        this.methodBody = methodBody;
+    public List<CallSiteInfo> getCallSites() {
+        return callSites;
     }
 
-    public String getFieldName() {
-        return fieldName;
+    public void addCallSite(CallSiteInfo callSite) {
+        callSites.add(callSite);
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,5 @@
 package com.igetcool.icodetest.models;
 
-import com.intellij.psi.PsiType;
-
 import java.util.Map;
 
 public class MethodMetaInfo {
@@ -12,9 +10,9 @@ public class MethodMetaInfo {
 
     private String requestType;
 
-    private Map<String, PsiType> argsNameAndTypes;
+    private Map<String, TypeInfo> argsNameAndTypes;
 
-    private PsiType returnType;
+    private TypeInfo returnType;
 
     private String methodBody;
 
@@ -26,19 +24,19 @@ public class MethodMetaInfo {
         return methodName;
     }
 
-    public Map<String, PsiType> getArgsNameAndTypes() {
+    public Map<String, TypeInfo> getArgsNameAndTypes() {
         return argsNameAndTypes;
     }
 
-    public void setArgsNameAndTypes(Map<String, PsiType> argsNameAndTypes) {
+    public void setArgsNameAndTypes(Map<String, TypeInfo> argsNameAndTypes) {
         this.argsNameAndTypes = argsNameAndTypes;
     }
 
-    public PsiType getReturnType() {
+    public TypeInfo getReturnType() {
         return returnType;
     }
 
-    public void setReturnType(PsiType returnType) {
+    public void setReturnType(TypeInfo returnType) {
         this.returnType = returnType;
     }
 
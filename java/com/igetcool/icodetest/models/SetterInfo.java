@@ -0,0 +1,77 @@
+package com.igetcool.icodetest.models;
+
+import java.util.Objects;
+
+/**
+ * SetterInfo 是自定义类型中一个 setter 参数的不可变快照。
+ * 生成对象实例时，每个 SetterInfo 对应一行 "实例.setXxx(默认值);" 代码。
+ * 相等性按全部字段判断，从持久化缓存中读取的快照与新提取的快照内容相同时相等。
+ */
+public final class SetterInfo {
+
+    private final String methodName;
+
+    private final String defaultValue;
+
+    /**
+     * 参数为可实例化的自定义类型时，该类型的完全限定名；参数为元素是自定义类型的容器时，元素类型的完全限定名；否则为null。
+     * 构造嵌套测试数据时，据此在 TypeInfo 的嵌套类型表中查找参数类型。
+     */
+    private final String nestedTypeName;
+
+    /**
+     * 参数为元素是自定义类型的容器时，容器默认值的代码模板，元素位置为 TypeClassifier.ELEMENT_PLACEHOLDER；否则为null。
+     */
+    private final String defaultValueTemplate;
+
+    public SetterInfo(String methodName, String defaultValue) {
+        this(methodName, defaultValue, null);
+    }
+
+    public SetterInfo(String methodName, String defaultValue, String nestedTypeName) {
+        this(methodName, defaultValue, nestedTypeName, null);
+    }
+
+    public SetterInfo(String methodName, String defaultValue, String nestedTypeName, String defaultValueTemplate) {
+        this.methodName = methodName;
+        this.defaultValue = defaultValue;
+        this.nestedTypeName = nestedTypeName;
+        this.defaultValueTemplate = defaultValueTemplate;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    public String getNestedTypeName() {
+        return nestedTypeName;
+    }
+
+    public String getDefaultValueTemplate() {
+        return defaultValueTemplate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SetterInfo)) {
+            return false;
+        }
+        SetterInfo that = (SetterInfo) o;
+        return Objects.equals(methodName, that.methodName)
+                && Objects.equals(defaultValue, that.defaultValue)
+                && Objects.equals(nestedTypeName, that.nestedTypeName)
+                && Objects.equals(defaultValueTemplate, that.defaultValueTemplate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(methodName, defaultValue, nestedTypeName, defaultValueTemplate);
+    }
+}
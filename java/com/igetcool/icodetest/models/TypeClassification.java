@@ -0,0 +1,106 @@
+package com.igetcool.icodetest.models;
+
+/**
+ * TypeClassification 是一次类型解析得到的全部分类结果。
+ * 由 TypeClassifier.classify 一次性计算，并在一次批量生成中以类型的完整文本为键共享。
+ */
+public final class TypeClassification {
+
+    /**
+     * 类型解析后的类的完全限定名，数组类型取其元素类型；无法解析或不是类类型时为null。
+     */
+    private final String qualifiedName;
+
+    /**
+     * 类型解析后的类的简单名称，数组类型取其元素类型；无法解析或不是类类型时为null。
+     */
+    private final String className;
+
+    private final boolean primitiveType;
+
+    private final boolean stringType;
+
+    private final boolean voidType;
+
+    private final boolean customType;
+
+    private final boolean interfaceOrAbstractClassOrEnum;
+
+    /**
+     * 类型默认值的代码表达式。
+     */
+    private final String defaultValue;
+
+    /**
+     * 容器类型默认值的代码模板，元素位置为 TypeClassifier.ELEMENT_PLACEHOLDER。
+     * 只有元素为可实例化的自定义类型时才有模板，其他类型为null。
+     */
+    private final String defaultValueTemplate;
+
+    public TypeClassification(
+            String qualifiedName,
+            String className,
+            boolean primitiveType,
+            boolean stringType,
+            boolean voidType,
+            boolean customType,
+            boolean interfaceOrAbstractClassOrEnum,
+            String defaultValue,
+            String defaultValueTemplate
+    ) {
+        this.qualifiedName = qualifiedName;
+        this.className = className;
+        this.primitiveType = primitiveType;
+        this.stringType = stringType;
+        this.voidType = voidType;
+        this.customType = customType;
+        this.interfaceOrAbstractClassOrEnum = interfaceOrAbstractClassOrEnum;
+        this.defaultValue = defaultValue;
+        this.defaultValueTemplate = defaultValueTemplate;
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public boolean isPrimitiveType() {
+        return primitiveType;
+    }
+
+    public boolean isStringType() {
+        return stringType;
+    }
+
+    public boolean isVoidType() {
+        return voidType;
+    }
+
+    public boolean isCustomType() {
+        return customType;
+    }
+
+    public boolean isInterfaceOrAbstractClassOrEnum() {
+        return interfaceOrAbstractClassOrEnum;
+    }
+
+    /**
+     * 是否是可以使用 new 关键字实例化的自定义类型。
+     *
+     * @return 如果是自定义类型，且不是接口、抽象类或枚举，则返回 true
+     */
+    public boolean isInstantiableCustomType() {
+        return customType && !interfaceOrAbstractClassOrEnum && qualifiedName != null;
+    }
+
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    public String getDefaultValueTemplate() {
+        return defaultValueTemplate;
+    }
+}
@@ -0,0 +1,185 @@
+package com.igetcool.icodetest.models;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * TypeInfo 是 PsiType 的不可变快照。
+ * 在一次短读操作中从 PSI 采集类型名称、分类标志、默认值表达式以及 setter 列表，
+ * 之后的代码生成（RequestStyle、Layout、Appender）只依赖该快照，可在任意线程无锁执行。
+ */
+public final class TypeInfo {
+
+    /**
+     * 类型的完整文本，例如 java.util.List<com.example.UserDTO>，同时作为相等性判断的依据。
+     */
+    private final String canonicalText;
+
+    /**
+     * 类型的简短文本，例如 List<UserDTO>。
+     */
+    private final String presentableText;
+
+    /**
+     * 类型解析后的类的完全限定名，无法解析或不是类类型时为null。
+     */
+    private final String qualifiedName;
+
+    /**
+     * 类型解析后的类的简单名称，无法解析或不是类类型时为null。
+     */
+    private final String className;
+
+    private final boolean primitiveType;
+
+    private final boolean stringType;
+
+    private final boolean voidType;
+
+    private final boolean customType;
+
+    private final boolean interfaceOrAbstractClassOrEnum;
+
+    /**
+     * 类型默认值的代码表达式。
+     */
+    private final String defaultValue;
+
+    /**
+     * 可实例化的自定义类型的 setter 列表，其他类型为空列表。
+     * 列表由提取缓存共享，同一个类的所有快照持有同一个不可修改的列表实例。
+     */
+    private final List<SetterInfo> setters;
+
+    /**
+     * 构造测试数据时需要的嵌套自定义类型，以类的完全限定名为键，其他类型为空表。
+     * 表中包含从当前类型出发、在配置深度内可达的所有可实例化的自定义类型；
+     * 表中的 TypeInfo 只带有自身的 setter 列表，嵌套关系通过 SetterInfo 的嵌套类型名在本表中查找，因此自引用的类型不会形成无限结构。
+     */
+    private final Map<String, TypeInfo> nestedTypes;
+
+    /**
+     * 容器类型默认值的代码模板，元素位置为 TypeClassifier.ELEMENT_PLACEHOLDER，其他类型为null。
+     */
+    private final String defaultValueTemplate;
+
+    /**
+     * 容器类型的元素类型，例如 List、Set、Optional、Page 的类型参数，Map 的值类型，数组的元素类型；其他类型为null。
+     */
+    private final TypeInfo elementType;
+
+    public TypeInfo(
+            String canonicalText,
+            String presentableText,
+            String qualifiedName,
+            String className,
+            boolean primitiveType,
+            boolean stringType,
+            boolean voidType,
+            boolean customType,
+            boolean interfaceOrAbstractClassOrEnum,
+            String defaultValue,
+            List<SetterInfo> setters,
+            Map<String, TypeInfo> nestedTypes,
+            String defaultValueTemplate,
+            TypeInfo elementType
+    ) {
+        this.canonicalText = canonicalText;
+        this.presentableText = presentableText;
+        this.qualifiedName = qualifiedName;
+        this.className = className;
+        this.primitiveType = primitiveType;
+        this.stringType = stringType;
+        this.voidType = voidType;
+        this.customType = customType;
+        this.interfaceOrAbstractClassOrEnum = interfaceOrAbstractClassOrEnum;
+        this.defaultValue = defaultValue;
+        this.setters = setters == null ? Collections.emptyList() : setters;
+        this.nestedTypes = nestedTypes == null ? Collections.emptyMap() : nestedTypes;
+        this.defaultValueTemplate = defaultValueTemplate;
+        this.elementType = elementType;
+    }
+
+    public String getCanonicalText() {
+        return canonicalText;
+    }
+
+    public String getPresentableText() {
+        return presentableText;
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public boolean isPrimitiveType() {
+        return primitiveType;
+    }
+
+    public boolean isStringType() {
+        return stringType;
+    }
+
+    public boolean isVoidType() {
+        return voidType;
+    }
+
+    public boolean isCustomType() {
+        return customType;
+    }
+
+    public boolean notCustomType() {
+        return !customType;
+    }
+
+    public boolean isInterfaceOrAbstractClassOrEnum() {
+        return interfaceOrAbstractClassOrEnum;
+    }
+
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    public List<SetterInfo> getSetters() {
+        return setters;
+    }
+
+    public Map<String, TypeInfo> getNestedTypes() {
+        return nestedTypes;
+    }
+
+    public String getDefaultValueTemplate() {
+        return defaultValueTemplate;
+    }
+
+    public TypeInfo getElementType() {
+        return elementType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TypeInfo)) {
+            return false;
+        }
+        return Objects.equals(canonicalText, ((TypeInfo) o).canonicalText);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(canonicalText);
+    }
+
+    @Override
+    public String toString() {
+        return canonicalText;
+    }
+}
@@ -1,21 +1,23 @@
 package com.igetcool.icodetest.models.event;
 
 import com.igetcool.icodetest.models.ClassMetaInfo;
-import com.intellij.psi.PsiType;
+import com.igetcool.icodetest.models.TypeInfo;
 
 import java.util.Set;
 
 public class DefaultTextEvent {
 
     private final ClassMetaInfo classMetaInfo;
-    private final Set<PsiType> testClassImportSet;
+    private final Set<TypeInfo> testClassImportSet;
     private final String testClassFieldText;
     private final String testClassMethodText;
     private final String includeMethodName;  // 选中的方法，同时用于生成单独的测试文件
+    private boolean mergeExisting;  // 目标文件已存在时，只把缺少的测试方法和导入合并进去
+    private String sourceFingerprint;  // 被测试类的指纹，写出成功后记录到生成清单中
 
     public DefaultTextEvent(
             ClassMetaInfo classMetaInfo,
-            Set<PsiType> testClassImportSet,
+            Set<TypeInfo> testClassImportSet,
             String testClassFieldText,
             String testClassMethodText,
             String includeMethodName
@@ -31,7 +33,7 @@ public class DefaultTextEvent {
         return classMetaInfo;
     }
 
-    public Set<PsiType> getTestClassImportSet() {
+    public Set<TypeInfo> getTestClassImportSet() {
         return testClassImportSet;
     }
 
@@ -46,4 +48,20 @@ public class DefaultTextEvent {
     public String getIncludeMethodName() {
         return includeMethodName;
     }
+
+    public boolean isMergeExisting() {
+        return mergeExisting;
+    }
+
+    public void setMergeExisting(boolean mergeExisting) {
+        this.mergeExisting = mergeExisting;
+    }
+
+    public String getSourceFingerprint() {
+        return sourceFingerprint;
+    }
+
+    public void setSourceFingerprint(String sourceFingerprint) {
+        this.sourceFingerprint = sourceFingerprint;
+    }
 }
@@ -1,15 +1,20 @@
 package com.igetcool.icodetest.processor;
 
 import com.igetcool.icodetest.appender.Appender;
+import com.igetcool.icodetest.appender.AsyncAppender;
 import com.igetcool.icodetest.appender.CommonFileAppender;
 import com.igetcool.icodetest.appender.DefaultFileAppender;
+import com.igetcool.icodetest.appender.DocumentAppender;
+import com.igetcool.icodetest.boot.ConflictPolicy;
+import com.igetcool.icodetest.boot.GenerationManifest;
 import com.igetcool.icodetest.boot.SettingsManager;
 import com.igetcool.icodetest.constants.Constants;
-import com.igetcool.icodetest.dialog.OverrideDialog;
+import com.igetcool.icodetest.dialog.ConflictResolutionDialog;
+import com.igetcool.icodetest.enums.ConflictAction;
 import com.igetcool.icodetest.enums.OperateType;
+import com.igetcool.icodetest.enums.WriteResult;
 import com.igetcool.icodetest.extractor.ClassMetaInfoExtractor;
-import com.igetcool.icodetest.extractor.MethodCallInfoExtractor;
-import com.igetcool.icodetest.extractor.MethodMetaInfoExtractor;
+import com.igetcool.icodetest.extractor.ExtractionCache;
 import com.igetcool.icodetest.models.*;
 import com.igetcool.icodetest.models.event.CommonTextEvent;
 import com.igetcool.icodetest.models.event.DefaultTextEvent;
@@ -17,25 +22,37 @@ import com.igetcool.icodetest.style.MethodCallRequestStyle;
 import com.igetcool.icodetest.style.MockMvcRequestStyle;
 import com.igetcool.icodetest.style.RequestStyle;
 import com.igetcool.icodetest.style.RequestStyleContext;
+import com.igetcool.icodetest.utils.SourceRootMapper;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.*;
-import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.search.SearchScope;
-import com.intellij.psi.search.searches.AnnotatedElementsSearch;
-import com.intellij.util.Query;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public abstract class AbstractProcessor implements Processor {
 
     private final String MESSAGE_DIALOG_TITLE = "操作结果";
 
+    private final String TASK_TITLE = "iCodeTest：生成单元测试";
+
     /**
      * 处理单个PsiFile并生成相关的测试代码。
      * 如果需要特定的测试方法，可以指定methodName参数。
@@ -89,262 +106,588 @@ public abstract class AbstractProcessor implements Processor {
             );
             return;
         }
-        SettingsManager.INSTANCE.loadSettings();
-        createCommonClassFile(filesList);
-        createDefaultClassFile(project, filesList, methodName, operateType);
+        doProcessInBackground(project, indicator -> filesList, methodName, operateType);
     }
 
     /**
-     * 创建一个通用类文件，如果它还不存在的话。
-     * 这个方法会检查传入的PsiFile列表中的第一个文件的路径，并基于该路径创建一个通用类文件。
-     * 如果该文件已经存在，则不执行任何操作。
+     * 以可取消的后台任务执行整个生成流程，避免在 EDT 上遍历目录、解析 PSI 与写文件。
+     * 文件列表的收集同样在后台任务中执行；已经写出的测试文件在取消后保持不变。
      *
-     * @param filesList 包含PsiFile对象的列表，这些文件用于确定通用类文件的创建位置和包名
+     * @param project        当前的Project对象。
+     * @param filesCollector 在后台线程中收集待处理文件的函数。
+     * @param methodName     要生成测试代码的特定方法名称。
+     * @param operateType    对应右键菜单的几种操作类型。
      */
-    private void createCommonClassFile(List<PsiJavaFile> filesList) {
-        PsiJavaFile psiFile = filesList.get(0);
-        String commonPackagePath = SettingsManager.INSTANCE.getCommonPackageName().replace(".", "/");
+    protected void doProcessInBackground(
+            Project project,
+            Function<ProgressIndicator, List<PsiJavaFile>> filesCollector,
+            String methodName,
+            OperateType operateType
+    ) {
+        SettingsManager.INSTANCE.loadSettings();
+        final GenerationSummary summary = new GenerationSummary();
+        new Task.Backgroundable(project, TASK_TITLE, true) {
 
-        String commonAbsolutePath = psiFile.getVirtualFile().getPath().replaceAll(
-                String.format("/%s.*", Constants.SRC_MAIN_JAVA),
-                String.format("/%s/%s", Constants.SRC_TEST_JAVA, commonPackagePath)
-        );
-        String commonFullFilePath = String.format("%s/%s.java", commonAbsolutePath, SettingsManager.INSTANCE.getCommonClassName());
-        if (Files.notExists(Path.of(commonFullFilePath))) {
-            Project project = psiFile.getProject();
-            Module module = ModuleUtil.findModuleForPsiElement(psiFile);
-            if (module != null) {
-                List<PsiClass> springBootClasses = findSpringBootApplicationClasses(project, module);
-                if (springBootClasses.isEmpty()) {
-                    List<PsiClass> springCloudClasses = findSpringCloudApplicationClasses(project, module);
-                    if (springCloudClasses.isEmpty()) {
-                        return;
+            private boolean noFiles;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(true);
+                indicator.setText("正在收集要处理的文件");
+                List<PsiJavaFile> filesList = filesCollector.apply(indicator);
+                if (filesList == null || filesList.isEmpty()) {
+                    noFiles = true;
+                    return;
+                }
+                indicator.setText("正在按模块分组");
+                Map<Module, List<PsiJavaFile>> filesByModule = groupByModule(filesList);
+                Appender<DefaultTextEvent> appender = createDefaultAppender(project);
+                try {
+                    indicator.setText("正在创建测试公共类");
+                    Set<PsiJavaFile> missingCommonFiles = createCommonClassFiles(
+                            project, filesByModule, createCommonAppender(appender), indicator, summary
+                    );
+                    // 同一模块的文件连续处理，整批仍在一次生成中完成，冲突只需确认一次
+                    List<PsiJavaFile> orderedFiles = new ArrayList<>(filesList.size());
+                    for (List<PsiJavaFile> moduleFiles : filesByModule.values()) {
+                        for (PsiJavaFile psiFile : moduleFiles) {
+                            if (!missingCommonFiles.contains(psiFile)) {
+                                orderedFiles.add(psiFile);
+                            }
+                        }
                     }
-                    springBootClasses.addAll(springCloudClasses);
+                    createDefaultClassFile(project, orderedFiles, methodName, operateType, appender, indicator, summary);
+                } finally {
+                    appender.close();
                 }
-                PsiClass psiClass = springBootClasses.get(0);
-                if (psiClass == null) {
+            }
+
+            @Override
+            public void onSuccess() {
+                if (noFiles) {
+                    showMessage(project, "非法参数：未找到要处理的文件");
                     return;
                 }
-                Appender appender = new CommonFileAppender(true);
-                CommonTextEvent commonTextEvent = new CommonTextEvent();
-                commonTextEvent.setAbsolutePath(commonAbsolutePath);
-                commonTextEvent.setQualifiedName(psiClass.getQualifiedName());
-                commonTextEvent.setClassName(psiClass.getName());
-                appender.append(commonTextEvent);
+                if (!summary.isEmpty()) {
+                    showMessage(project, summary.toMessage());
+                }
             }
-        }
+
+            @Override
+            public void onCancel() {
+                showMessage(project, "已取消，已生成的测试文件保持不变\n" + summary.toMessage());
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                showMessage(project, "异常：" + error.getMessage());
+            }
+        }.queue();
     }
 
-    private void createDefaultClassFile(Project project, List<PsiJavaFile> filesList, String includeMethodName, OperateType operateType) {
-        final StringBuilder sb = new StringBuilder();
-        RequestStyleContext requestStyleContext = getRequestStyleContext();
-        boolean overrideAll = false; // 默认不覆盖所有
+    private void showMessage(Project project, String message) {
+        Messages.showMessageDialog(
+                project,
+                message,
+                MESSAGE_DIALOG_TITLE,
+                Messages.getInformationIcon()
+        );
+    }
+
+    /**
+     * 按所属模块对文件分组，组的顺序与各模块第一个文件的顺序一致，组内保持原顺序。
+     *
+     * @param filesList 待处理的文件列表
+     * @return 以模块为键的文件分组，不属于任何模块的文件以null为键
+     */
+    private Map<Module, List<PsiJavaFile>> groupByModule(List<PsiJavaFile> filesList) {
+        return ReadAction.compute(() -> {
+            Map<Module, List<PsiJavaFile>> result = new LinkedHashMap<>();
+            for (PsiJavaFile psiFile : filesList) {
+                result.computeIfAbsent(ModuleUtil.findModuleForPsiElement(psiFile), module -> new ArrayList<>()).add(psiFile);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 为批次中涉及的每个模块的每个测试根目录创建一个通用类文件，如果它还不存在的话。
+     * 各模块的启动类查找互不依赖，开启并行生成且涉及多个模块时交给有界线程池；
+     * 启动类的查找依赖索引，因此在 smart mode 下的非阻塞读操作中进行，写文件则在读操作之外完成。
+     * 找不到启动类的模块记录到汇总中，通用类文件无法创建的测试根目录下的文件不再生成测试。
+     *
+     * @param project       当前的Project对象
+     * @param filesByModule 以模块为键的文件分组，这些文件用于确定通用类文件的创建位置
+     * @param appender      通用类文件的追加器
+     * @param indicator     进度指示器
+     * @param summary       生成结果汇总
+     * @return 通用类文件既不存在也无法创建的文件，它们的测试将继承不存在的父类
+     */
+    private Set<PsiJavaFile> createCommonClassFiles(
+            Project project,
+            Map<Module, List<PsiJavaFile>> filesByModule,
+            Appender<CommonTextEvent> appender,
+            ProgressIndicator indicator,
+            GenerationSummary summary
+    ) {
+        Set<PsiJavaFile> missingCommonFiles = ConcurrentHashMap.newKeySet();
+        List<Map.Entry<Module, List<PsiJavaFile>>> groups = new ArrayList<>();
+        for (Map.Entry<Module, List<PsiJavaFile>> entry : filesByModule.entrySet()) {
+            if (entry.getKey() != null) {
+                groups.add(entry);
+            }
+        }
+        int total = groups.size();
+        ExecutorService executor = null;
+        List<Future<List<CommonTextEvent>>> futures = null;
+        if (SettingsManager.INSTANCE.isParallelGeneration() && total > 1) {
+            executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+                    "iCodeTest Common Class",
+                    Math.min(total, Runtime.getRuntime().availableProcessors())
+            );
+            futures = new ArrayList<>(total);
+            for (Map.Entry<Module, List<PsiJavaFile>> group : groups) {
+                futures.add(executor.submit(
+                        () -> findCommonTextEvents(project, group.getKey(), group.getValue(), missingCommonFiles, indicator)
+                ));
+            }
+        }
         try {
-            for (PsiJavaFile psiJavaFile : filesList) {
-                ClassMetaInfo classMetaInfo = ClassMetaInfoExtractor.extract(psiJavaFile, requestStyleContext, includeMethodName);
-                if (classMetaInfo == null) {
-                    continue;
-                }
-                List<PsiField> classFields = classMetaInfo.getClassFields();
-                if (classFields.isEmpty()) {
-                    continue;
-                }
-                List<PsiMethod> classMethods = classMetaInfo.getClassMethods();
-                if (classMethods.isEmpty()) {
-                    continue;
-                }
-                List<MethodCoreBase> methodCoreBases = getMethodCoreBases(classMethods, classFields);
-                if (methodCoreBases.isEmpty()) {
-                    continue;
+            for (int i = 0; i < total; i++) {
+                indicator.checkCanceled();
+                Map.Entry<Module, List<PsiJavaFile>> group = groups.get(i);
+                indicator.setText2(group.getKey().getName());
+                List<CommonTextEvent> commonTextEvents = futures == null
+                        ? findCommonTextEvents(project, group.getKey(), group.getValue(), missingCommonFiles, indicator)
+                        : ProgressIndicatorUtils.awaitWithCheckCanceled(futures.get(i), indicator);
+                for (CommonTextEvent commonTextEvent : commonTextEvents) {
+                    appender.append(commonTextEvent);
                 }
-                String finalFullPath = classMetaInfo.getFinalFullPath();
-                if (finalFullPath == null) {
-                    continue;
-                }
-                String finalClassName = classMetaInfo.getFinalClassName();
-                if (finalClassName == null) {
-                    continue;
-                }
-                if (operateType != OperateType.CUSTOM) { // 操作生成单个方法时，不处理以下逻辑
-                    if (Files.exists(Path.of(classMetaInfo.getFinalFullPath()))) {
-                        if (!overrideAll) {
-                            OverrideDialog dialog = new OverrideDialog(
-                                    project,
-                                    classMetaInfo.getFinalClassName(),
-                                    operateType == OperateType.RECURSIVE // 只有在一次操作生成多个单元测试文件时，才会为true
-                            );
-                            if (dialog.showAndGet()) {
-                                if (dialog.isOverrideAll()) {
-                                    overrideAll = true; // 用户选择覆盖所有，设置标志位
-                                }
-                                if (!dialog.isOK()) {
-                                    // 用户点击取消，不覆盖此文件
-                                    continue; // 继续处理下一个文件
-                                }
-                            } else {
-                                // 对话框被关闭
-                                continue; // 继续处理下一个文件
-                            }
-                        }
+                int missingCount = 0;
+                for (PsiJavaFile psiFile : group.getValue()) {
+                    if (missingCommonFiles.contains(psiFile)) {
+                        missingCount++;
                     }
                 }
-                final Set<PsiType> testClassImportSet = new HashSet<>(requestStyleContext.getFieldImportSet(classFields));
-                testClassImportSet.addAll(
-                        requestStyleContext.getMethodImportSet(methodCoreBases)
-                );
-                final String testClassFieldText = requestStyleContext.generateTestClassField(classFields, classMetaInfo);
-                final String testClassMethodText = requestStyleContext.generateTestClassMethod(methodCoreBases, classMetaInfo);
-                boolean defaultClassFileFlag = createDefaultClassFile(
-                        classMetaInfo,
-                        testClassImportSet,
-                        testClassFieldText,
-                        testClassMethodText,
-                        operateType == OperateType.CUSTOM && includeMethodName != null && !includeMethodName.isEmpty() ? includeMethodName : null
-                );
-                if (defaultClassFileFlag) {
-                    sb.append("成功").append(" -> ").append(classMetaInfo.getClassName()).append("\n");
-                } else {
-                    sb.append("失败").append(" -> ").append(classMetaInfo.getClassName()).append("\n");
+                if (missingCount > 0) {
+                    summary.missingApplication(group.getKey().getName(), missingCount);
                 }
             }
-        } catch (Throwable e) {
-            Messages.showMessageDialog(
-                    project,
-                    "异常：" + e.getMessage(),
-                    MESSAGE_DIALOG_TITLE,
-                    Messages.getInformationIcon()
-            );
-            return;
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
         }
-        if (!sb.toString().isEmpty()) {
-            Messages.showMessageDialog(
-                    project,
-                    sb.toString(),
-                    MESSAGE_DIALOG_TITLE,
-                    Messages.getInformationIcon()
-            );
+        return missingCommonFiles;
+    }
+
+    /**
+     * 为一个模块中尚不存在的通用类文件生成事件，模块的每个测试根目录一个。
+     * 模块没有可用的启动类时，通用类文件不存在的测试根目录下的文件加入 missingCommonFiles；读操作重新执行时重复加入不影响结果。
+     *
+     * @param missingCommonFiles 收集通用类文件既不存在也无法创建的文件
+     * @return 待写出的事件，模块中没有启动类或者通用类文件都已存在时为空列表
+     */
+    private List<CommonTextEvent> findCommonTextEvents(
+            Project project,
+            Module module,
+            List<PsiJavaFile> moduleFiles,
+            Set<PsiJavaFile> missingCommonFiles,
+            ProgressIndicator indicator
+    ) {
+        return ReadAction
+                .nonBlocking(() -> {
+                    Map<String, List<PsiJavaFile>> filesByCommonPath = new LinkedHashMap<>();
+                    for (PsiJavaFile psiFile : moduleFiles) {
+                        String commonAbsolutePath = getCommonAbsolutePath(project, psiFile);
+                        if (commonAbsolutePath != null) {
+                            filesByCommonPath.computeIfAbsent(commonAbsolutePath, path -> new ArrayList<>()).add(psiFile);
+                        }
+                    }
+                    List<CommonTextEvent> result = new ArrayList<>();
+                    for (Map.Entry<String, List<PsiJavaFile>> entry : filesByCommonPath.entrySet()) {
+                        ProgressManager.checkCanceled();
+                        String commonAbsolutePath = entry.getKey();
+                        String commonFullFilePath = String.format("%s/%s.java", commonAbsolutePath, SettingsManager.INSTANCE.getCommonClassName());
+                        if (Files.exists(Path.of(commonFullFilePath))) {
+                            continue;
+                        }
+                        CommonTextEvent commonTextEvent = findCommonTextEvent(module, commonAbsolutePath);
+                        if (commonTextEvent != null) {
+                            result.add(commonTextEvent);
+                        } else {
+                            missingCommonFiles.addAll(entry.getValue());
+                        }
+                    }
+                    return result;
+                })
+                .inSmartMode(project)
+                .wrapProgress(indicator)
+                .executeSynchronously();
+    }
+
+    /**
+     * 获取文件所在测试根目录下通用类文件的目录。
+     *
+     * @param project 当前项目
+     * @param psiFile 被测试的源文件
+     * @return 通用类文件的目录，无法确定测试根目录时返回null
+     */
+    private String getCommonAbsolutePath(Project project, PsiJavaFile psiFile) {
+        String testRoot = SourceRootMapper.getTestRoot(project, psiFile.getVirtualFile());
+        if (testRoot == null) {
+            return null;
         }
+        return testRoot + "/" + SettingsManager.INSTANCE.getCommonPackageName().replace(".", "/");
     }
 
-    private RequestStyleContext getRequestStyleContext() {
-        RequestStyle requestStyle;
-        if (Objects.equals(Constants.DEFAULT_REQUEST_STYLE_MOCK, SettingsManager.INSTANCE.getRequestStyle())) {
-            requestStyle = new MockMvcRequestStyle();
-        } else if (Objects.equals(Constants.DEFAULT_REQUEST_STYLE_CALL, SettingsManager.INSTANCE.getRequestStyle())) {
-            requestStyle = new MethodCallRequestStyle();
-        } else {
-            throw new IllegalArgumentException("非法参数：Request的类型错误");
+    /**
+     * 为尚不存在的通用类文件生成事件。
+     *
+     * @return 通用类文件的事件，模块没有可用的启动类时返回null
+     */
+    private CommonTextEvent findCommonTextEvent(Module module, String commonAbsolutePath) {
+        String applicationClassName = SpringApplicationFinder.findApplicationClass(module);
+        if (applicationClassName == null) {
+            return null;
         }
-        return new RequestStyleContext(requestStyle);
+        CommonTextEvent commonTextEvent = new CommonTextEvent();
+        commonTextEvent.setAbsolutePath(commonAbsolutePath);
+        commonTextEvent.setQualifiedName(applicationClassName);
+        commonTextEvent.setClassName(StringUtil.getShortName(applicationClassName));
+        return commonTextEvent;
     }
 
-    private boolean createDefaultClassFile(
-            ClassMetaInfo classMetaInfo,
-            Set<PsiType> testClassImportSet,
-            String testClassFieldText,
-            String testClassMethodText,
-            String includeMethodName
+    private void createDefaultClassFile(
+            Project project,
+            List<PsiJavaFile> filesList,
+            String includeMethodName,
+            OperateType operateType,
+            Appender<DefaultTextEvent> appender,
+            ProgressIndicator indicator,
+            GenerationSummary summary
     ) {
-        DefaultTextEvent defaultTextEvent = new DefaultTextEvent(
-                classMetaInfo,
-                testClassImportSet,
-                testClassFieldText,
-                testClassMethodText,
-                includeMethodName
+        RequestStyleContext requestStyleContext = getRequestStyleContext();
+        ExtractionCache extractionCache = new ExtractionCache(
+                project,
+                SettingsManager.INSTANCE.getFixtureDepth(),
+                SettingsManager.INSTANCE.getCollectionSize()
         );
-        Appender appender = new DefaultFileAppender(true);
-        return appender.append(defaultTextEvent);
+        // 单个方法的测试单独成文件，不参与增量生成
+        GenerationManifest manifest = operateType == OperateType.CUSTOM ? null : GenerationManifest.load(project);
+        try {
+            // 目标文件不存在的测试没有冲突，生成后立即交给追加器，写出与后续文件的生成同时进行
+            List<DefaultTextEvent> existingTargetEvents = new ArrayList<>();
+            prepareDefaultTextEvents(
+                    filesList, requestStyleContext, extractionCache, includeMethodName, operateType, manifest, summary, indicator,
+                    defaultTextEvent -> {
+                        ClassMetaInfo classMetaInfo = defaultTextEvent.getClassMetaInfo();
+                        if (operateType == OperateType.CUSTOM || Files.notExists(Path.of(classMetaInfo.getFinalFullPath()))) {
+                            recordWriteResult(summary, manifest, defaultTextEvent, appender.append(defaultTextEvent));
+                        } else {
+                            existingTargetEvents.add(defaultTextEvent);
+                        }
+                    }
+            );
+            // 预检：统一确定所有冲突文件的处理方式，之后的写出阶段不再被打断
+            indicator.setText("正在检查已存在的测试文件");
+            Map<String, ConflictAction> conflictActions = resolveConflicts(project, existingTargetEvents, operateType);
+            int total = existingTargetEvents.size();
+            for (int i = 0; i < total; i++) {
+                indicator.checkCanceled();
+                DefaultTextEvent defaultTextEvent = existingTargetEvents.get(i);
+                ClassMetaInfo classMetaInfo = defaultTextEvent.getClassMetaInfo();
+                indicator.setFraction((double) i / total);
+                indicator.setText(String.format("正在写出测试文件（%d/%d）", i + 1, total));
+                indicator.setText2(classMetaInfo.getFinalClassName());
+                ConflictAction conflictAction = conflictActions.getOrDefault(classMetaInfo.getFinalFullPath(), ConflictAction.OVERWRITE);
+                if (conflictAction == ConflictAction.SKIP) {
+                    summary.skipped(classMetaInfo.getClassName());
+                    continue;
+                }
+                if (conflictAction == ConflictAction.RENAME) {
+                    renameFinalClass(classMetaInfo);
+                }
+                defaultTextEvent.setMergeExisting(conflictAction == ConflictAction.MERGE);
+                recordWriteResult(summary, manifest, defaultTextEvent, appender.append(defaultTextEvent));
+            }
+            // 等待排队的测试文件全部写出，逐个记录写出结果
+            indicator.setText("正在提交测试文件");
+            indicator.setText2("");
+            for (Map.Entry<DefaultTextEvent, WriteResult> entry : appender.flush().entrySet()) {
+                recordWriteResult(summary, manifest, entry.getKey(), entry.getValue());
+            }
+            if (manifest != null) {
+                for (String testPath : manifest.findOrphanedTests()) {
+                    summary.orphaned(testPath);
+                }
+            }
+        } finally {
+            if (manifest != null) {
+                // 取消时同样保存已经成功写出的记录
+                manifest.save();
+            }
+        }
+        indicator.setFraction(1.0);
     }
 
-    private List<MethodCoreBase> getMethodCoreBases(
-            List<PsiMethod> classMethods,
-            List<PsiField> classFields
+    /**
+     * 根据设置创建写出测试文件的追加器。
+     *
+     * @param project 当前的Project对象
+     * @return 通过 IDE 文档批量写出的追加器，或者在写出线程中直接写入磁盘的追加器
+     */
+    private Appender<DefaultTextEvent> createDefaultAppender(Project project) {
+        return SettingsManager.INSTANCE.isDocumentWrite()
+                ? new DocumentAppender(project)
+                : new AsyncAppender<>(new DefaultFileAppender(project, true), Constants.WRITE_QUEUE_CAPACITY);
+    }
+
+    /**
+     * 创建写出测试公共类的追加器。
+     * 通过 IDE 文档写出时，公共类与测试文件在同一个 WriteCommandAction 中创建，新的测试引用的父类立即可以解析；
+     * 否则直接写入磁盘。
+     *
+     * @param defaultAppender 写出测试文件的追加器
+     * @return 公共类的追加器
+     */
+    private Appender<CommonTextEvent> createCommonAppender(Appender<DefaultTextEvent> defaultAppender) {
+        return defaultAppender instanceof DocumentAppender
+                ? ((DocumentAppender) defaultAppender).getCommonAppender()
+                : new CommonFileAppender(true);
+    }
+
+    /**
+     * 把一个测试文件的写出结果记录到汇总中，尚未写出的结果在追加器 flush 之后再记录。
+     * 写出成功时，同时把被测试类的指纹记录到生成清单中。
+     *
+     * @param summary          生成结果汇总
+     * @param manifest         生成清单，不参与增量生成时为null
+     * @param defaultTextEvent 单元测试事件对象
+     * @param writeResult      写出结果
+     */
+    private void recordWriteResult(
+            GenerationSummary summary,
+            GenerationManifest manifest,
+            DefaultTextEvent defaultTextEvent,
+            WriteResult writeResult
     ) {
-        List<MethodCoreBase> result = new ArrayList<>();
-        for (PsiMethod method : classMethods) {
-            MethodMetaInfo methodMetaInfo = MethodMetaInfoExtractor.extract(method);
-            String methodBody = methodMetaInfo.getMethodBody();
-            List<MethodCallInfo> methodCallInfos = new ArrayList<>();
-            for (PsiField field : classFields) {
-                MethodCallInfo methodCallInfo =
-                        MethodCallInfoExtractor.extract(methodBody, field);
-                if (methodCallInfo != null) {
-                    methodCallInfos.add(methodCallInfo);
+        ClassMetaInfo classMetaInfo = defaultTextEvent.getClassMetaInfo();
+        if (writeResult.isSuccess() && manifest != null && defaultTextEvent.getSourceFingerprint() != null) {
+            manifest.record(classMetaInfo, defaultTextEvent.getSourceFingerprint());
+        }
+        switch (writeResult) {
+            case WRITTEN:
+                summary.success(classMetaInfo.getClassName());
+                break;
+            case UNCHANGED:
+                summary.unchanged();
+                break;
+            case QUEUED:
+                break;
+            default:
+                summary.failure(classMetaInfo.getClassName());
+                break;
+        }
+    }
+
+    /**
+     * 为所有文件完成提取与文本生成。
+     * 开启并行生成时，各文件的处理交给有界线程池，结果仍按原顺序交给 eventConsumer。
+     *
+     * @param manifest      生成清单，不参与增量生成时为null
+     * @param eventConsumer 在当前线程中依次接收待写出的事件，不需要生成测试或者测试已是最新的文件没有事件
+     */
+    private void prepareDefaultTextEvents(
+            List<PsiJavaFile> filesList,
+            RequestStyleContext requestStyleContext,
+            ExtractionCache extractionCache,
+            String includeMethodName,
+            OperateType operateType,
+            GenerationManifest manifest,
+            GenerationSummary summary,
+            ProgressIndicator indicator,
+            Consumer<DefaultTextEvent> eventConsumer
+    ) {
+        indicator.setIndeterminate(false);
+        int total = filesList.size();
+        ExecutorService executor = null;
+        List<Future<DefaultTextEvent>> futures = null;
+        if (SettingsManager.INSTANCE.isParallelGeneration() && total > 1) {
+            // 并行模式：每个文件的提取与文本生成互不依赖，交给有界线程池，结果按原顺序依次合并
+            executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+                    "iCodeTest Generator",
+                    Math.min(total, Runtime.getRuntime().availableProcessors())
+            );
+            futures = new ArrayList<>(total);
+            for (PsiJavaFile psiJavaFile : filesList) {
+                futures.add(executor.submit(
+                        () -> prepareDefaultTextEvent(psiJavaFile, requestStyleContext, extractionCache, includeMethodName, operateType, manifest, summary, indicator)
+                ));
+            }
+        }
+        try {
+            for (int i = 0; i < total; i++) {
+                indicator.checkCanceled();
+                PsiJavaFile psiJavaFile = filesList.get(i);
+                indicator.setFraction((double) i / total);
+                indicator.setText(String.format("正在生成单元测试（%d/%d）", i + 1, total));
+                indicator.setText2(psiJavaFile.getVirtualFile().getName());
+                DefaultTextEvent defaultTextEvent = futures == null
+                        ? prepareDefaultTextEvent(psiJavaFile, requestStyleContext, extractionCache, includeMethodName, operateType, manifest, summary, indicator)
+                        : ProgressIndicatorUtils.awaitWithCheckCanceled(futures.get(i), indicator);
+                if (defaultTextEvent != null) {
+                    eventConsumer.accept(defaultTextEvent);
                 }
             }
-            if (!methodCallInfos.isEmpty()) {
-                result.add(new MethodCoreBase(methodMetaInfo, methodCallInfos));
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
             }
         }
-        return result;
     }
 
     /**
-     * 在给定项目中搜索带有 @SpringBootApplication 注解的 PsiClass。
+     * 检查哪些目标测试文件已经存在，并确定每个冲突文件的处理方式。
+     * 已保存在项目策略中的文件直接使用保存的处理方式；其余冲突文件通过一个汇总对话框一次性选择。
      *
-     * @param project 要搜索的项目
+     * @return 以目标文件全路径为键的处理方式，没有冲突的文件不在其中
      */
-    private List<PsiClass> findSpringBootApplicationClasses(
-            @NotNull Project project,
-            @NotNull com.intellij.openapi.module.Module module
+    private Map<String, ConflictAction> resolveConflicts(
+            Project project,
+            List<DefaultTextEvent> defaultTextEvents,
+            OperateType operateType
     ) {
-        JavaPsiFacade psiFacade = JavaPsiFacade.getInstance(project);
-        PsiClass psiClass = psiFacade.findClass(
-                Constants.ANNOTATION_TEXT_SPRING_BOOT_APPLICATION,
-                GlobalSearchScope.allScope(project)
-        );
-        final List<PsiClass> result = new ArrayList<>();
-        if (psiClass != null) {
-//            SearchScope searchScope = GlobalSearchScope.projectScope(project);
-            SearchScope searchScope = GlobalSearchScope.moduleScope(module);
-            Query<PsiClass> query = AnnotatedElementsSearch.searchPsiClasses(psiClass, searchScope);
-            query.forEach(new com.intellij.util.Processor<PsiClass>() {
-                @Override
-                public boolean process(PsiClass psiClass) {
-                    result.add(psiClass);
-                    System.out.println("Found class with @SpringBootApplication: " + psiClass.getQualifiedName());
-                    return true; // 继续处理其他类
+        final Map<String, ConflictAction> result = new HashMap<>();
+        if (operateType == OperateType.CUSTOM) { // 操作生成单个方法时，单独成文件，直接覆盖
+            return result;
+        }
+        final ConflictPolicy conflictPolicy = ConflictPolicy.load(project);
+        final List<String> unresolvedPaths = new ArrayList<>();
+        for (DefaultTextEvent defaultTextEvent : defaultTextEvents) {
+            String finalFullPath = defaultTextEvent.getClassMetaInfo().getFinalFullPath();
+            if (Files.exists(Path.of(finalFullPath))) {
+                ConflictAction conflictAction = conflictPolicy.find(finalFullPath);
+                if (conflictAction != null) {
+                    result.put(finalFullPath, conflictAction);
+                } else {
+                    unresolvedPaths.add(finalFullPath);
                 }
-            });
-        } else {
-            System.out.println("SpringBootApplication annotation class not found.");
+            }
+        }
+        if (unresolvedPaths.isEmpty()) {
+            return result;
+        }
+        final Map<String, ConflictAction> choices = new HashMap<>();
+        ApplicationManager.getApplication().invokeAndWait(() -> {
+            ConflictResolutionDialog dialog = new ConflictResolutionDialog(project, unresolvedPaths);
+            if (dialog.showAndGet()) {
+                choices.putAll(dialog.getChoices());
+                if (dialog.isRemember()) {
+                    conflictPolicy.remember(dialog.getChoices(), dialog.getDefaultAction());
+                }
+            }
+        });
+        for (String unresolvedPath : unresolvedPaths) {
+            // 对话框被关闭时，保留已存在的文件
+            result.put(unresolvedPath, choices.getOrDefault(unresolvedPath, ConflictAction.SKIP));
         }
         return result;
     }
 
     /**
-     * 在给定项目中搜索带有 @SpringCloudApplication 注解的 PsiClass。
+     * 为测试类选择一个尚未被占用的类名，例如 XxxTest1、XxxTest2。
      *
-     * @param project 要搜索的项目
+     * @param classMetaInfo 类的元信息，最终类名和最终全路径会被更新
      */
-    private List<PsiClass> findSpringCloudApplicationClasses(
-            @NotNull Project project,
-            @NotNull com.intellij.openapi.module.Module module
+    private void renameFinalClass(ClassMetaInfo classMetaInfo) {
+        String baseClassName = classMetaInfo.getFinalClassName();
+        for (int index = 1; ; index++) {
+            String finalClassName = baseClassName + index;
+            String finalFullPath = classMetaInfo.getFinalAbsolutePath() + "/" + finalClassName + ".java";
+            if (Files.notExists(Path.of(finalFullPath))) {
+                classMetaInfo.setFinalClassName(finalClassName);
+                classMetaInfo.setFinalFullPath(finalFullPath);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 完成单个文件的提取与文本生成。
+     * 只有提取 PSI 快照的阶段处于非阻塞读操作中，遇到写操作时会被中断并自动重试；
+     * 之后的代码文本生成只依赖快照，无需持有读锁。
+     * 开启增量生成时，在生成代码文本之前比较类的指纹，指纹未变化的类直接跳过。
+     *
+     * @return 待写出的事件；如果该文件不需要生成测试，或者测试已是最新的，则返回null
+     */
+    private DefaultTextEvent prepareDefaultTextEvent(
+            PsiJavaFile psiJavaFile,
+            RequestStyleContext requestStyleContext,
+            ExtractionCache extractionCache,
+            String includeMethodName,
+            OperateType operateType,
+            GenerationManifest manifest,
+            GenerationSummary summary,
+            ProgressIndicator indicator
     ) {
-        JavaPsiFacade psiFacade = JavaPsiFacade.getInstance(project);
-        PsiClass psiClass = psiFacade.findClass(
-                Constants.ANNOTATION_TEXT_SPRING_CLOUD_APPLICATION,
-                GlobalSearchScope.allScope(project)
+        ClassMetaInfo classMetaInfo = ReadAction
+                .nonBlocking(() -> ClassMetaInfoExtractor.extract(psiJavaFile, requestStyleContext, includeMethodName, extractionCache))
+                .wrapProgress(indicator)
+                .executeSynchronously();
+        if (classMetaInfo == null) {
+            return null;
+        }
+        List<FieldInfo> classFields = classMetaInfo.getClassFields();
+        if (classFields.isEmpty()) {
+            return null;
+        }
+        List<MethodCoreBase> methodCoreBases = classMetaInfo.getMethodCoreBases();
+        if (methodCoreBases.isEmpty()) {
+            return null;
+        }
+        String finalFullPath = classMetaInfo.getFinalFullPath();
+        if (finalFullPath == null) {
+            return null;
+        }
+        String finalClassName = classMetaInfo.getFinalClassName();
+        if (finalClassName == null) {
+            return null;
+        }
+        String sourceFingerprint = null;
+        if (manifest != null) {
+            sourceFingerprint = manifest.fingerprint(classMetaInfo);
+            if (SettingsManager.INSTANCE.isIncrementalGeneration() && manifest.isUpToDate(classMetaInfo, sourceFingerprint)) {
+                summary.upToDate();
+                return null;
+            }
+        }
+        final Set<TypeInfo> testClassImportSet = new HashSet<>(requestStyleContext.getFieldImportSet(classFields));
+        testClassImportSet.addAll(
+                requestStyleContext.getMethodImportSet(methodCoreBases)
         );
-        final List<PsiClass> result = new ArrayList<>();
-        if (psiClass != null) {
-//              SearchScope searchScope = GlobalSearchScope.projectScope(project);
-            SearchScope searchScope = GlobalSearchScope.moduleScope(module);
-            Query<PsiClass> query = AnnotatedElementsSearch.searchPsiClasses(
-                    psiClass, searchScope
-            );
-            query.forEach(new com.intellij.util.Processor<PsiClass>() {
-                @Override
-                public boolean process(PsiClass psiClass) {
-                    result.add(psiClass);
-                    System.out.println("Found class with @SpringCloudApplication: " + psiClass.getQualifiedName());
-                    return true; // 继续处理其他类
-                }
-            });
+        final String testClassFieldText = requestStyleContext.generateTestClassField(classFields, classMetaInfo);
+        final String testClassMethodText = requestStyleContext.generateTestClassMethod(methodCoreBases, classMetaInfo);
+        DefaultTextEvent defaultTextEvent = new DefaultTextEvent(
+                classMetaInfo,
+                testClassImportSet,
+                testClassFieldText,
+                testClassMethodText,
+                operateType == OperateType.CUSTOM && includeMethodName != null && !includeMethodName.isEmpty() ? includeMethodName : null
+        );
+        defaultTextEvent.setSourceFingerprint(sourceFingerprint);
+        return defaultTextEvent;
+    }
+
+    private RequestStyleContext getRequestStyleContext() {
+        RequestStyle requestStyle;
+        if (Objects.equals(Constants.DEFAULT_REQUEST_STYLE_MOCK, SettingsManager.INSTANCE.getRequestStyle())) {
+            requestStyle = new MockMvcRequestStyle();
+        } else if (Objects.equals(Constants.DEFAULT_REQUEST_STYLE_CALL, SettingsManager.INSTANCE.getRequestStyle())) {
+            requestStyle = new MethodCallRequestStyle();
         } else {
-            System.out.println("SpringCloudApplication annotation class not found.");
+            throw new IllegalArgumentException("非法参数：Request的类型错误");
         }
-        return result;
+        return new RequestStyleContext(requestStyle);
     }
 }
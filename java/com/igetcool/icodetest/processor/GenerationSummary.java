@@ -0,0 +1,102 @@
+package com.igetcool.icodetest.processor;
+
+/**
+ * GenerationSummary 用于汇总一次批量生成的执行结果。
+ * 后台任务中逐个文件记录成功、失败或内容未变化，任务结束后统一在 EDT 上展示。
+ */
+public class GenerationSummary {
+
+    private final StringBuilder details = new StringBuilder();
+
+    private int unchangedCount;
+
+    private int upToDateCount;
+
+    /**
+     * 记录一个生成成功的类。
+     *
+     * @param className 被测试类的名称
+     */
+    public synchronized void success(String className) {
+        details.append("成功").append(" -> ").append(className).append("\n");
+    }
+
+    /**
+     * 记录一个生成失败的类。
+     *
+     * @param className 被测试类的名称
+     */
+    public synchronized void failure(String className) {
+        details.append("失败").append(" -> ").append(className).append("\n");
+    }
+
+    /**
+     * 记录一个因目标文件已存在而跳过的类。
+     *
+     * @param className 被测试类的名称
+     */
+    public synchronized void skipped(String className) {
+        details.append("跳过").append(" -> ").append(className).append("\n");
+    }
+
+    /**
+     * 记录一个内容与已存在文件相同、因此没有写入的类。
+     * 这类文件数量通常很多，只计数，不逐个列出。
+     */
+    public synchronized void unchanged() {
+        unchangedCount++;
+    }
+
+    /**
+     * 记录一个指纹自上次成功生成以来没有变化、因此没有重新生成的类。
+     * 只计数，不逐个列出。
+     */
+    public synchronized void upToDate() {
+        upToDateCount++;
+    }
+
+    /**
+     * 记录一个源文件已被删除、但仍然存在的测试文件。
+     *
+     * @param testPath 测试文件的路径
+     */
+    public synchronized void orphaned(String testPath) {
+        details.append("孤立的测试").append(" -> ").append(testPath).append("\n");
+    }
+
+    /**
+     * 记录一个找不到启动类的模块，该模块中缺少测试公共类的测试根目录下不生成测试，否则生成的测试将继承不存在的父类。
+     *
+     * @param moduleName 模块名称
+     * @param fileCount  因此没有生成测试的文件数量
+     */
+    public synchronized void missingApplication(String moduleName, int fileCount) {
+        details.append("缺少启动类").append(" -> ").append(moduleName)
+                .append("（").append(fileCount).append(" 个文件未生成测试）").append("\n");
+    }
+
+    /**
+     * 是否没有任何可展示的结果。
+     *
+     * @return 没有记录任何结果时返回 true
+     */
+    public synchronized boolean isEmpty() {
+        return details.length() == 0 && unchangedCount == 0 && upToDateCount == 0;
+    }
+
+    /**
+     * 生成用于结果对话框的文本。
+     *
+     * @return 汇总文本
+     */
+    public synchronized String toMessage() {
+        StringBuilder result = new StringBuilder(details);
+        if (unchangedCount > 0) {
+            result.append("内容未变化 -> ").append(unchangedCount).append(" 个文件（避免了写入）\n");
+        }
+        if (upToDateCount > 0) {
+            result.append("指纹未变化 -> ").append(upToDateCount).append(" 个类（跳过了生成）\n");
+        }
+        return result.toString();
+    }
+}
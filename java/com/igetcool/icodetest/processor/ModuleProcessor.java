@@ -0,0 +1,59 @@
+package com.igetcool.icodetest.processor;
+
+import com.igetcool.icodetest.enums.OperateType;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+
+public class ModuleProcessor extends AbstractProcessor {
+
+    @Override
+    public OperateType operateType() {
+        return OperateType.MODULE;
+    }
+
+    @Override
+    public void process(@NotNull Project project, @NotNull Editor editor) {
+        FileDocumentManager fileDocumentManager = FileDocumentManager.getInstance();
+        VirtualFile virtualFile = fileDocumentManager.getFile(editor.getDocument());
+        if (virtualFile == null) {
+            return;
+        }
+        // 获取当前文件所在的模块
+        Module module = ModuleUtil.findModuleForFile(virtualFile, project);
+        if (module == null) {
+            return;
+        }
+        processModule(project, module);
+    }
+
+    /**
+     * 模块取自数据上下文（例如项目视图中选中的模块或文件），不依赖打开的编辑器。
+     */
+    @Override
+    public void process(@NotNull Project project, @NotNull DataContext dataContext) {
+        Module module = LangDataKeys.MODULE.getData(dataContext);
+        if (module == null) {
+            return;
+        }
+        processModule(project, module);
+    }
+
+    private void processModule(Project project, Module module) {
+        // 基于索引收集模块内需要生成测试的文件，在后台任务中完成
+        doProcessInBackground(
+                project,
+                indicator -> SourceFileCollector.collect(project, GlobalSearchScope.moduleScope(module), indicator),
+                null,
+                OperateType.MODULE
+        );
+    }
+
+}
@@ -1,6 +1,8 @@
 package com.igetcool.icodetest.processor;
 
 import com.igetcool.icodetest.enums.OperateType;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.DataContext;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
 
@@ -27,4 +29,18 @@ public interface Processor {
      */
     void process(Project project, Editor editor);
 
+    /**
+     * 根据动作的数据上下文处理操作。
+     * 默认从数据上下文中取得当前编辑器，没有打开的编辑器时不做任何处理；不依赖编辑器的处理器可以重写此方法。
+     *
+     * @param project     当前的 IntelliJ IDEA 项目实例。
+     * @param dataContext 触发操作时的数据上下文。
+     */
+    default void process(Project project, DataContext dataContext) {
+        Editor editor = CommonDataKeys.EDITOR.getData(dataContext);
+        if (editor != null) {
+            process(project, editor);
+        }
+    }
+
 }
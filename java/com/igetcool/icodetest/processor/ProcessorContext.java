@@ -1,6 +1,7 @@
 package com.igetcool.icodetest.processor;
 
 import com.igetcool.icodetest.enums.OperateType;
+import com.intellij.openapi.actionSystem.DataContext;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
 
@@ -24,6 +25,12 @@ public class ProcessorContext {
             case RECURSIVE:
                 bean = new RecursiveProcessor();
                 break;
+            case MODULE:
+                bean = new ModuleProcessor();
+                break;
+            case PROJECT:
+                bean = new ProjectProcessor();
+                break;
             default:
                 throw new IllegalArgumentException("Illegal Argument！");
         }
@@ -33,4 +40,8 @@ public class ProcessorContext {
     public void process(Project project, Editor editor) {
         processor.process(project, editor);
     }
+
+    public void process(Project project, DataContext dataContext) {
+        processor.process(project, dataContext);
+    }
 }
@@ -0,0 +1,40 @@
+package com.igetcool.icodetest.processor;
+
+import com.igetcool.icodetest.enums.OperateType;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+
+public class ProjectProcessor extends AbstractProcessor {
+
+    @Override
+    public OperateType operateType() {
+        return OperateType.PROJECT;
+    }
+
+    @Override
+    public void process(@NotNull Project project, @NotNull Editor editor) {
+        processProject(project);
+    }
+
+    /**
+     * 整个项目的生成不依赖编辑器，没有打开的文件时同样可以执行。
+     */
+    @Override
+    public void process(@NotNull Project project, @NotNull DataContext dataContext) {
+        processProject(project);
+    }
+
+    private void processProject(Project project) {
+        // 基于索引收集整个项目中需要生成测试的文件，在后台任务中完成
+        doProcessInBackground(
+                project,
+                indicator -> SourceFileCollector.collect(project, GlobalSearchScope.projectScope(project), indicator),
+                null,
+                OperateType.PROJECT
+        );
+    }
+
+}
@@ -6,14 +6,10 @@ import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiJavaFile;
 import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScopesCore;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class RecursiveProcessor extends AbstractProcessor {
 
     @Override
@@ -38,30 +34,12 @@ public class RecursiveProcessor extends AbstractProcessor {
         if (psiDirectory == null) {
             return;
         }
-        // 获取 PSI 文件列表（此处为当前文件所在目录的所有文件包括子目录文件）
-        List<PsiJavaFile> allFiles = findAllFiles(psiDirectory);
-        doProcess(project, allFiles, OperateType.RECURSIVE);
-    }
-
-    /**
-     * 在指定的目录及其子目录下查找所有的Java文件。
-     * 该方法递归地搜索给定目录及其所有子目录，并将找到的Java文件收集到列表中返回。
-     *
-     * @param directory 要搜索的起始目录。
-     * @return 包含所有找到的PsiJavaFile对象的列表。
-     */
-    private List<PsiJavaFile> findAllFiles(PsiDirectory directory) {
-        PsiFile[] files = directory.getFiles();
-        List<PsiJavaFile> filesList = new ArrayList<>();
-        for (PsiFile psiFile : files) {
-            if (psiFile instanceof PsiJavaFile) {
-                filesList.add((PsiJavaFile) psiFile);
-            }
-        }
-        PsiDirectory[] subDirs = directory.getSubdirectories();
-        for (PsiDirectory subDir : subDirs) {
-            filesList.addAll(findAllFiles(subDir));
-        }
-        return filesList;
+        // 基于索引收集目录及子目录中需要生成测试的文件，在后台任务中完成，不再逐层遍历 PsiDirectory
+        doProcessInBackground(
+                project,
+                indicator -> SourceFileCollector.collect(project, GlobalSearchScopesCore.directoryScope(psiDirectory, true), indicator),
+                null,
+                OperateType.RECURSIVE
+        );
     }
 }
@@ -0,0 +1,127 @@
+package com.igetcool.icodetest.processor;
+
+import com.igetcool.icodetest.constants.Constants;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.fileTypes.FileTypeRegistry;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.DelegatingGlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.AnnotatedElementsSearch;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * SourceFileCollector 基于索引收集需要生成单元测试的 Java 文件。
+ * 搜索范围限定在生产代码的源码根目录中，通过注解索引直接找到含有 @Autowired 或 @Resource 字段的 Java 文件，
+ * 只有这些文件才会被加载为 PSI，不会产生测试的文件不再被遍历和解析。
+ */
+public class SourceFileCollector {
+
+    /**
+     * 注入字段的注解，只有含有这些字段的类才会生成单元测试。
+     */
+    private static final String[] INJECTION_ANNOTATIONS = {
+            Constants.ANNOTATION_TEXT_AUTOWIRED,
+            Constants.ANNOTATION_TEXT_RESOURCE
+    };
+
+    private SourceFileCollector() {
+    }
+
+    /**
+     * 在给定范围内收集需要生成单元测试的 Java 文件。
+     * 依赖索引，因此在 smart mode 下的非阻塞读操作中执行：注解搜索与加载 PSI 分为两个读操作，
+     * 遇到写操作时只中断并重试当前阶段，不会长时间阻塞 IDE 中的写操作。
+     *
+     * @param project   当前的Project对象
+     * @param scope     搜索范围，例如模块、项目或目录
+     * @param indicator 后台任务的进度指示器
+     * @return 按路径排序的文件列表
+     */
+    public static List<PsiJavaFile> collect(@NotNull Project project, @NotNull GlobalSearchScope scope, @NotNull ProgressIndicator indicator) {
+        GlobalSearchScope sourceScope = productionSourceScope(project, scope);
+        Set<VirtualFile> injectedFiles = ReadAction
+                .nonBlocking(() -> findInjectedFiles(project, sourceScope))
+                .inSmartMode(project)
+                .wrapProgress(indicator)
+                .executeSynchronously();
+        List<VirtualFile> candidates = new ArrayList<>(injectedFiles);
+        candidates.sort(Comparator.comparing(VirtualFile::getPath));
+        return ReadAction
+                .nonBlocking(() -> findJavaFiles(project, candidates))
+                .inSmartMode(project)
+                .wrapProgress(indicator)
+                .executeSynchronously();
+    }
+
+    private static List<PsiJavaFile> findJavaFiles(Project project, List<VirtualFile> candidates) {
+        FileTypeRegistry fileTypeRegistry = FileTypeRegistry.getInstance();
+        PsiManager psiManager = PsiManager.getInstance(project);
+        List<PsiJavaFile> result = new ArrayList<>(candidates.size());
+        for (VirtualFile virtualFile : candidates) {
+            ProgressManager.checkCanceled();
+            if (!virtualFile.isValid() || !fileTypeRegistry.isFileOfType(virtualFile, JavaFileType.INSTANCE)) {
+                continue;
+            }
+            PsiFile psiFile = psiManager.findFile(virtualFile);
+            if (psiFile instanceof PsiJavaFile) {
+                result.add((PsiJavaFile) psiFile);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 通过注解索引查找含有注入字段的文件，查找过程基于 stub，不会构建完整的 PSI 树。
+     *
+     * @param project     当前的Project对象
+     * @param sourceScope 生产代码的搜索范围
+     * @return 含有注入字段的文件集合
+     */
+    private static Set<VirtualFile> findInjectedFiles(Project project, GlobalSearchScope sourceScope) {
+        JavaPsiFacade psiFacade = JavaPsiFacade.getInstance(project);
+        GlobalSearchScope allScope = GlobalSearchScope.allScope(project);
+        final Set<VirtualFile> result = new HashSet<>();
+        for (String annotation : INJECTION_ANNOTATIONS) {
+            PsiClass annotationClass = psiFacade.findClass(annotation, allScope);
+            if (annotationClass == null) {
+                continue;
+            }
+            AnnotatedElementsSearch.searchPsiFields(annotationClass, sourceScope).forEach(field -> {
+                ProgressManager.checkCanceled();
+                PsiFile psiFile = field.getContainingFile();
+                if (psiFile != null && psiFile.getVirtualFile() != null) {
+                    result.add(psiFile.getVirtualFile());
+                }
+                return true;
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 将搜索范围限定在生产代码的源码根目录中，排除测试源码、资源与库文件。
+     *
+     * @param project 当前的Project对象
+     * @param scope   原始搜索范围
+     * @return 限定后的搜索范围
+     */
+    private static GlobalSearchScope productionSourceScope(Project project, GlobalSearchScope scope) {
+        final ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+        return new DelegatingGlobalSearchScope(scope) {
+            @Override
+            public boolean contains(@NotNull VirtualFile file) {
+                return super.contains(file)
+                        && fileIndex.isInSourceContent(file)
+                        && !fileIndex.isInTestSourceContent(file);
+            }
+        };
+    }
+}
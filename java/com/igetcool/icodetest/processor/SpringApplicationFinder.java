@@ -0,0 +1,90 @@
+package com.igetcool.icodetest.processor;
+
+import com.igetcool.icodetest.constants.Constants;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.ProjectScope;
+import com.intellij.psi.search.searches.AnnotatedElementsSearch;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * SpringApplicationFinder 查找模块的测试可以使用的 Spring 启动类，即带有 @SpringBootApplication 或 @SpringCloudApplication 注解的类。
+ * 优先使用模块自身的启动类；多模块项目中的服务模块通常没有启动类，此时在模块测试类路径上可见的其他项目模块中查找。
+ * 依赖当前模块的启动模块不在它的测试类路径上（Maven 与 Gradle 都不允许循环依赖），引用其中的启动类会导致测试无法编译，因此不作为候选。
+ * 查找结果按模块缓存在 CachedValue 中，Java 代码结构或模块依赖发生变化时失效，
+ * 因此同一个模块在多次批量生成之间只需进行一次注解搜索。
+ */
+public class SpringApplicationFinder {
+
+    private static final Key<CachedValue<String>> APPLICATION_CLASS_KEY = Key.create("icodetest.springApplicationClass");
+
+    /**
+     * 按优先顺序排列的启动类注解。
+     */
+    private static final String[] APPLICATION_ANNOTATIONS = {
+            Constants.ANNOTATION_TEXT_SPRING_BOOT_APPLICATION,
+            Constants.ANNOTATION_TEXT_SPRING_CLOUD_APPLICATION
+    };
+
+    private SpringApplicationFinder() {
+    }
+
+    /**
+     * 获取模块的测试可以使用的启动类的完全限定名。
+     * 依赖索引，必须在 smart mode 下的读操作中调用。
+     *
+     * @param module 要查找的模块
+     * @return 启动类的完全限定名，模块自身及其测试类路径上的项目模块中都没有启动类时返回null
+     */
+    @Nullable
+    public static String findApplicationClass(@NotNull Module module) {
+        // 只缓存类名，不持有 PSI 对象
+        return CachedValuesManager.getManager(module.getProject()).getCachedValue(
+                module,
+                APPLICATION_CLASS_KEY,
+                () -> CachedValueProvider.Result.create(
+                        searchApplicationClass(module),
+                        PsiModificationTracker.getInstance(module.getProject()).forLanguage(JavaLanguage.INSTANCE),
+                        ProjectRootManager.getInstance(module.getProject())
+                ),
+                false
+        );
+    }
+
+    private static String searchApplicationClass(Module module) {
+        String applicationClass = searchApplicationClass(module, GlobalSearchScope.moduleScope(module));
+        if (applicationClass != null) {
+            return applicationClass;
+        }
+        // 测试类路径上的项目模块，不包括库中的类
+        GlobalSearchScope testClasspathScope = GlobalSearchScope.moduleRuntimeScope(module, true)
+                .intersectWith(ProjectScope.getContentScope(module.getProject()));
+        return searchApplicationClass(module, testClasspathScope);
+    }
+
+    private static String searchApplicationClass(Module module, GlobalSearchScope searchScope) {
+        JavaPsiFacade psiFacade = JavaPsiFacade.getInstance(module.getProject());
+        GlobalSearchScope annotationScope = GlobalSearchScope.allScope(module.getProject());
+        for (String annotation : APPLICATION_ANNOTATIONS) {
+            PsiClass annotationClass = psiFacade.findClass(annotation, annotationScope);
+            if (annotationClass == null) {
+                continue;
+            }
+            PsiClass applicationClass = AnnotatedElementsSearch.searchPsiClasses(annotationClass, searchScope).findFirst();
+            if (applicationClass != null && applicationClass.getQualifiedName() != null) {
+                return applicationClass.getQualifiedName();
+            }
+        }
+        return null;
+    }
+}
@@ -1,9 +1,12 @@
 package com.igetcool.icodetest.settings;
 
+import com.igetcool.icodetest.boot.ConflictPolicy;
 import com.igetcool.icodetest.boot.SettingsManager;
 import com.igetcool.icodetest.constants.Constants;
 import com.igetcool.icodetest.utils.I18nUtils;
 import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
 
 import javax.swing.*;
 import java.awt.*;
@@ -33,6 +36,22 @@ public class SettingsPanel extends JPanel {
     private JTextArea classBodyTextArea4;
     // JUnit 5 的类体文本区域
     private JTextArea classBodyTextArea5;
+    // 并行生成复选框
+    private JCheckBox parallelCheckBox;
+    // 通过 IDE 文档写出复选框
+    private JCheckBox documentWriteCheckBox;
+    // 增量生成复选框
+    private JCheckBox incrementalCheckBox;
+    // 清除记住的冲突处理方式按钮
+    private JButton resetConflictButton;
+    // 测试数据嵌套深度
+    private JSpinner fixtureDepthSpinner;
+    // 集合类测试数据的元素个数
+    private JSpinner collectionSizeSpinner;
+    // MethodCall 风格的测试方法模板文本区域
+    private JTextArea methodTemplateTextAreaCall;
+    // MockMvc 风格的测试方法模板文本区域
+    private JTextArea methodTemplateTextAreaMock;
 
     /**
      * SettingsPanel 构造函数。
@@ -42,6 +61,8 @@ public class SettingsPanel extends JPanel {
         initUI();
         // 首次打开时，根据当前设置的 jUnit 版本来控制文本区域的显示
         setTextAreaVisibilityBasedOnJUnitVersion();
+        // 同样根据当前设置的请求风格来控制模板文本区域的显示
+        setTextAreaVisibilityBasedOnRequestStyle();
         initRadioButtonListeners();
     }
 
@@ -57,6 +78,14 @@ public class SettingsPanel extends JPanel {
         }
     }
 
+    private void setTextAreaVisibilityBasedOnRequestStyle() {
+        String currentStyle = getPropertyValue(Constants.SETTINGS_PLUGIN_MOCKS_SELECTED, SettingsManager.INSTANCE.getRequestStyle());
+        setTypeRadioButtonSelection(currentStyle);
+        boolean mockStyle = Constants.DEFAULT_REQUEST_STYLE_MOCK.equals(currentStyle);
+        methodTemplateTextAreaCall.setVisible(!mockStyle);
+        methodTemplateTextAreaMock.setVisible(mockStyle);
+    }
+
     private void initUI() {
         // 创建按钮组，确保单选
         ButtonGroup buttonGroup = new ButtonGroup();
@@ -89,6 +118,39 @@ public class SettingsPanel extends JPanel {
         classBodyTextArea5 = new JTextArea(20, 60);
         classBodyTextArea5.setText(SettingsManager.INSTANCE.getCommonClassBody5());
 
+        JLabel methodTemplateLabel = new JLabel(I18nUtils.methodTemplate());
+        methodTemplateTextAreaCall = new JTextArea(20, 60);
+        methodTemplateTextAreaCall.setText(SettingsManager.INSTANCE.getMethodTemplateCall());
+        methodTemplateTextAreaMock = new JTextArea(20, 60);
+        methodTemplateTextAreaMock.setText(SettingsManager.INSTANCE.getMethodTemplateMock());
+
+        parallelCheckBox = new JCheckBox(I18nUtils.parallelGeneration());
+        parallelCheckBox.setSelected(SettingsManager.INSTANCE.isParallelGeneration());
+
+        documentWriteCheckBox = new JCheckBox(I18nUtils.documentWrite());
+        documentWriteCheckBox.setSelected(SettingsManager.INSTANCE.isDocumentWrite());
+
+        incrementalCheckBox = new JCheckBox(I18nUtils.incrementalGeneration());
+        incrementalCheckBox.setSelected(SettingsManager.INSTANCE.isIncrementalGeneration());
+
+        // 记住的冲突处理方式保存在各个项目中，立即对所有打开的项目生效，不需要应用
+        resetConflictButton = new JButton(I18nUtils.resetConflictChoices());
+        resetConflictButton.addActionListener(e -> {
+            for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+                ConflictPolicy.reset(project);
+            }
+        });
+
+        JLabel fixtureDepthLabel = new JLabel(I18nUtils.fixtureDepth());
+        fixtureDepthSpinner = new JSpinner(new SpinnerNumberModel(
+                SettingsManager.INSTANCE.getFixtureDepth(), 0, Constants.MAX_FIXTURE_DEPTH, 1
+        ));
+
+        JLabel collectionSizeLabel = new JLabel(I18nUtils.collectionSize());
+        collectionSizeSpinner = new JSpinner(new SpinnerNumberModel(
+                SettingsManager.INSTANCE.getCollectionSize(), 0, Constants.MAX_COLLECTION_SIZE, 1
+        ));
+
         // 使用BoxLayout布局管理器，按垂直方向排列组件
         setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
 
@@ -102,6 +164,18 @@ public class SettingsPanel extends JPanel {
         styleRadioPanel.add(styleCallRadio);
         styleRadioPanel.add(styleMockRadio);
 
+        JPanel parallelPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        parallelPanel.add(parallelCheckBox);
+        parallelPanel.add(documentWriteCheckBox);
+        parallelPanel.add(incrementalCheckBox);
+        parallelPanel.add(resetConflictButton);
+
+        JPanel fixturePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        fixturePanel.add(fixtureDepthLabel);
+        fixturePanel.add(fixtureDepthSpinner);
+        fixturePanel.add(collectionSizeLabel);
+        fixturePanel.add(collectionSizeSpinner);
+
         JPanel commonPkgPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         commonPkgPanel.add(templatePkgLabel);
         commonPkgPanel.add(packageNameTextField);
@@ -115,12 +189,20 @@ public class SettingsPanel extends JPanel {
         commonTextPanel.add(classBodyTextArea4);
         commonTextPanel.add(classBodyTextArea5);
 
+        JPanel methodTemplatePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        methodTemplatePanel.add(methodTemplateLabel);
+        methodTemplatePanel.add(methodTemplateTextAreaCall);
+        methodTemplatePanel.add(methodTemplateTextAreaMock);
+
         // 将单选按钮面板和文本域面板添加到主面板
         add(junitRadioPanel);
         add(styleRadioPanel);
+        add(parallelPanel);
+        add(fixturePanel);
         add(commonPkgPanel);
         add(commonClsPanel);
         add(commonTextPanel);
+        add(methodTemplatePanel);
     }
 
     /**
@@ -137,6 +219,13 @@ public class SettingsPanel extends JPanel {
         String classNameValue = getPropertyValue(Constants.SETTINGS_PLUGIN_CLASS_NAME, SettingsManager.INSTANCE.getCommonClassName());
         String classBodyValue4 = getPropertyValue(Constants.SETTINGS_PLUGIN_CLASS_BODY4, SettingsManager.INSTANCE.getCommonClassBody4());
         String classBodyValue5 = getPropertyValue(Constants.SETTINGS_PLUGIN_CLASS_BODY5, SettingsManager.INSTANCE.getCommonClassBody5());
+        String parallelValue = getPropertyValue(Constants.SETTINGS_PLUGIN_PARALLEL, String.valueOf(SettingsManager.INSTANCE.isParallelGeneration()));
+        String documentWriteValue = getPropertyValue(Constants.SETTINGS_PLUGIN_DOCUMENT_WRITE, String.valueOf(SettingsManager.INSTANCE.isDocumentWrite()));
+        String incrementalValue = getPropertyValue(Constants.SETTINGS_PLUGIN_INCREMENTAL, String.valueOf(SettingsManager.INSTANCE.isIncrementalGeneration()));
+        String fixtureDepthValue = getPropertyValue(Constants.SETTINGS_PLUGIN_FIXTURE_DEPTH, String.valueOf(SettingsManager.INSTANCE.getFixtureDepth()));
+        String collectionSizeValue = getPropertyValue(Constants.SETTINGS_PLUGIN_COLLECTION_SIZE, String.valueOf(SettingsManager.INSTANCE.getCollectionSize()));
+        String methodTemplateCallValue = getPropertyValue(Constants.SETTINGS_PLUGIN_METHOD_TEMPLATE_CALL, SettingsManager.INSTANCE.getMethodTemplateCall());
+        String methodTemplateMockValue = getPropertyValue(Constants.SETTINGS_PLUGIN_METHOD_TEMPLATE_MOCK, SettingsManager.INSTANCE.getMethodTemplateMock());
 
         // 比较当前属性值与UI组件的值是否一致
         boolean isVersionRadioButtonModified = !currentVersionSelected.equals(
@@ -149,6 +238,13 @@ public class SettingsPanel extends JPanel {
         boolean isClassNameModified = !classNameValue.equals(classNameTextField.getText());
         boolean isClassBody4Modified = !classBodyValue4.equals(classBodyTextArea4.getText());
         boolean isClassBody5Modified = !classBodyValue5.equals(classBodyTextArea5.getText());
+        boolean isParallelModified = !parallelValue.equals(String.valueOf(parallelCheckBox.isSelected()));
+        boolean isDocumentWriteModified = !documentWriteValue.equals(String.valueOf(documentWriteCheckBox.isSelected()));
+        boolean isIncrementalModified = !incrementalValue.equals(String.valueOf(incrementalCheckBox.isSelected()));
+        boolean isFixtureDepthModified = !fixtureDepthValue.equals(String.valueOf(fixtureDepthSpinner.getValue()));
+        boolean isCollectionSizeModified = !collectionSizeValue.equals(String.valueOf(collectionSizeSpinner.getValue()));
+        boolean isMethodTemplateCallModified = !methodTemplateCallValue.equals(methodTemplateTextAreaCall.getText());
+        boolean isMethodTemplateMockModified = !methodTemplateMockValue.equals(methodTemplateTextAreaMock.getText());
 
         // 返回是否有任何修改
         return isVersionRadioButtonModified
@@ -156,7 +252,14 @@ public class SettingsPanel extends JPanel {
                 || isPackageNameModified
                 || isClassNameModified
                 || isClassBody4Modified
-                || isClassBody5Modified;
+                || isClassBody5Modified
+                || isParallelModified
+                || isDocumentWriteModified
+                || isIncrementalModified
+                || isFixtureDepthModified
+                || isCollectionSizeModified
+                || isMethodTemplateCallModified
+                || isMethodTemplateMockModified;
     }
 
     /**
@@ -174,6 +277,13 @@ public class SettingsPanel extends JPanel {
         setPropertyValue(Constants.SETTINGS_PLUGIN_CLASS_NAME, classNameTextField.getText());
         setPropertyValue(Constants.SETTINGS_PLUGIN_CLASS_BODY4, classBodyTextArea4.getText());
         setPropertyValue(Constants.SETTINGS_PLUGIN_CLASS_BODY5, classBodyTextArea5.getText());
+        setPropertyValue(Constants.SETTINGS_PLUGIN_PARALLEL, String.valueOf(parallelCheckBox.isSelected()));
+        setPropertyValue(Constants.SETTINGS_PLUGIN_DOCUMENT_WRITE, String.valueOf(documentWriteCheckBox.isSelected()));
+        setPropertyValue(Constants.SETTINGS_PLUGIN_INCREMENTAL, String.valueOf(incrementalCheckBox.isSelected()));
+        setPropertyValue(Constants.SETTINGS_PLUGIN_FIXTURE_DEPTH, String.valueOf(fixtureDepthSpinner.getValue()));
+        setPropertyValue(Constants.SETTINGS_PLUGIN_COLLECTION_SIZE, String.valueOf(collectionSizeSpinner.getValue()));
+        setPropertyValue(Constants.SETTINGS_PLUGIN_METHOD_TEMPLATE_CALL, methodTemplateTextAreaCall.getText());
+        setPropertyValue(Constants.SETTINGS_PLUGIN_METHOD_TEMPLATE_MOCK, methodTemplateTextAreaMock.getText());
     }
 
     /**
@@ -187,6 +297,13 @@ public class SettingsPanel extends JPanel {
         String classNameValue = getPropertyValue(Constants.SETTINGS_PLUGIN_CLASS_NAME, SettingsManager.INSTANCE.getCommonClassName());
         String classBodyValue4 = getPropertyValue(Constants.SETTINGS_PLUGIN_CLASS_BODY4, SettingsManager.INSTANCE.getCommonClassBody4());
         String classBodyValue5 = getPropertyValue(Constants.SETTINGS_PLUGIN_CLASS_BODY5, SettingsManager.INSTANCE.getCommonClassBody5());
+        String parallelValue = getPropertyValue(Constants.SETTINGS_PLUGIN_PARALLEL, String.valueOf(SettingsManager.INSTANCE.isParallelGeneration()));
+        String documentWriteValue = getPropertyValue(Constants.SETTINGS_PLUGIN_DOCUMENT_WRITE, String.valueOf(SettingsManager.INSTANCE.isDocumentWrite()));
+        String incrementalValue = getPropertyValue(Constants.SETTINGS_PLUGIN_INCREMENTAL, String.valueOf(SettingsManager.INSTANCE.isIncrementalGeneration()));
+        String fixtureDepthValue = getPropertyValue(Constants.SETTINGS_PLUGIN_FIXTURE_DEPTH, String.valueOf(SettingsManager.INSTANCE.getFixtureDepth()));
+        String collectionSizeValue = getPropertyValue(Constants.SETTINGS_PLUGIN_COLLECTION_SIZE, String.valueOf(SettingsManager.INSTANCE.getCollectionSize()));
+        String methodTemplateCallValue = getPropertyValue(Constants.SETTINGS_PLUGIN_METHOD_TEMPLATE_CALL, SettingsManager.INSTANCE.getMethodTemplateCall());
+        String methodTemplateMockValue = getPropertyValue(Constants.SETTINGS_PLUGIN_METHOD_TEMPLATE_MOCK, SettingsManager.INSTANCE.getMethodTemplateMock());
 
         setVersionRadioButtonSelection(storedVersion);
         setTypeRadioButtonSelection(storedStyle);
@@ -194,6 +311,22 @@ public class SettingsPanel extends JPanel {
         classNameTextField.setText(classNameValue);
         classBodyTextArea4.setText(classBodyValue4);
         classBodyTextArea5.setText(classBodyValue5);
+        parallelCheckBox.setSelected(Boolean.parseBoolean(parallelValue));
+        documentWriteCheckBox.setSelected(Boolean.parseBoolean(documentWriteValue));
+        incrementalCheckBox.setSelected(Boolean.parseBoolean(incrementalValue));
+        fixtureDepthSpinner.setValue(parseSpinnerValue(fixtureDepthValue, Constants.MAX_FIXTURE_DEPTH, Constants.DEFAULT_FIXTURE_DEPTH));
+        collectionSizeSpinner.setValue(parseSpinnerValue(collectionSizeValue, Constants.MAX_COLLECTION_SIZE, Constants.DEFAULT_COLLECTION_SIZE));
+        methodTemplateTextAreaCall.setText(methodTemplateCallValue);
+        methodTemplateTextAreaMock.setText(methodTemplateMockValue);
+    }
+
+    private int parseSpinnerValue(String value, int max, int defaultValue) {
+        try {
+            int parsed = Integer.parseInt(value);
+            return Math.max(0, Math.min(parsed, max));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
     }
 
     private void setVersionRadioButtonSelection(String version) {
@@ -227,11 +360,19 @@ public class SettingsPanel extends JPanel {
                     } else if (e.getSource() == jUnit5RadioButton) {
                         classBodyTextArea4.setVisible(false);
                         classBodyTextArea5.setVisible(true);
+                    } else if (e.getSource() == styleCallRadio) {
+                        methodTemplateTextAreaCall.setVisible(true);
+                        methodTemplateTextAreaMock.setVisible(false);
+                    } else if (e.getSource() == styleMockRadio) {
+                        methodTemplateTextAreaCall.setVisible(false);
+                        methodTemplateTextAreaMock.setVisible(true);
                     }
                 }
             }
         };
         jUnit4RadioButton.addItemListener(radioButtonListener);
         jUnit5RadioButton.addItemListener(radioButtonListener);
+        styleCallRadio.addItemListener(radioButtonListener);
+        styleMockRadio.addItemListener(radioButtonListener);
     }
 }
\ No newline at end of file
@@ -1,10 +1,9 @@
 package com.igetcool.icodetest.style;
 
-import com.igetcool.icodetest.models.MethodCallInfo;
+import com.igetcool.icodetest.boot.SettingsManager;
+import com.igetcool.icodetest.models.*;
 import com.igetcool.icodetest.utils.StringProcessor;
 import com.igetcool.icodetest.utils.TypeClassifier;
-import com.intellij.psi.*;
-import com.intellij.psi.util.PsiUtil;
 
 import java.util.*;
 
@@ -15,6 +14,68 @@ import java.util.*;
  */
 public abstract class AbstractRequestStyle implements RequestStyle {
 
+    /**
+     * 测试数据对象的构造器，RequestStyle 在每次批量生成时新建，构造计划的缓存与批次一致。
+     */
+    private final FixtureBuilder fixtureBuilder = new FixtureBuilder(SettingsManager.INSTANCE.getFixtureDepth());
+
+    /**
+     * 按测试方法模板生成所有测试方法。
+     * 模板只编译一次，每个测试方法只准备变量的值并渲染到同一个输出中。
+     *
+     * @param methodTemplate  编译后的测试方法模板
+     * @param methodCoreBases 包含方法核心信息的列表
+     * @param classMetaInfo   类的元信息
+     * @return 返回测试类方法定义的代码字符串
+     */
+    protected String renderTestMethods(CodeTemplate methodTemplate, List<MethodCoreBase> methodCoreBases, ClassMetaInfo classMetaInfo) {
+        final StringBuilder result = new StringBuilder();
+        final Map<String, String> values = new HashMap<>();
+        values.put("className", classMetaInfo.getClassName());
+        final List<String> testMethodNames = getTestMethodNames(methodCoreBases);
+        for (int i = 0; i < methodCoreBases.size(); i++) {
+            final MethodCoreBase methodCoreBase = methodCoreBases.get(i);
+            final MethodMetaInfo methodMetaInfo = methodCoreBase.getMethodMetaInfo();
+            final StringBuilder stubs = new StringBuilder();
+            final Set<String> declaredInstanceNames = new HashSet<>();
+            for (MethodCallInfo methodCallInfo : methodCoreBase.getMethodCallInfos()) {
+                stubs.append(allFieldObjectInstance(methodCallInfo, declaredInstanceNames));
+            }
+            values.put("methodName", methodMetaInfo.getMethodName());
+            values.put("testMethodName", testMethodNames.get(i));
+            values.put("stubs", stubs.toString());
+            values.put("call", callMethod(methodMetaInfo, classMetaInfo));
+            methodTemplate.renderTo(result, values);
+        }
+        return result.toString();
+    }
+
+    /**
+     * 生成确定的测试方法名，形如 "test + 方法名首字母大写"。
+     * 重载的方法按声明顺序追加序号，形如 testSave_1、testSave_2；相同的类重复生成时得到相同的方法名，
+     * 因此内容未变化的测试文件可以被识别出来，合并时也不会重复添加已有的测试方法。
+     *
+     * @param methodCoreBases 包含方法核心信息的列表，顺序与方法的声明顺序一致
+     * @return 与 methodCoreBases 一一对应的测试方法名
+     */
+    protected List<String> getTestMethodNames(List<MethodCoreBase> methodCoreBases) {
+        Map<String, Integer> overloadCounts = new HashMap<>();
+        for (MethodCoreBase methodCoreBase : methodCoreBases) {
+            overloadCounts.merge(methodCoreBase.getMethodMetaInfo().getMethodName(), 1, Integer::sum);
+        }
+        Map<String, Integer> overloadIndexes = new HashMap<>();
+        List<String> result = new ArrayList<>(methodCoreBases.size());
+        for (MethodCoreBase methodCoreBase : methodCoreBases) {
+            String methodName = methodCoreBase.getMethodMetaInfo().getMethodName();
+            String testMethodName = "test" + StringProcessor.toCapitalize(methodName);
+            if (overloadCounts.get(methodName) > 1) {
+                testMethodName += "_" + overloadIndexes.merge(methodName, 1, Integer::sum);
+            }
+            result.add(testMethodName);
+        }
+        return result;
+    }
+
     /**
      * 获取类字段所引用的所有导入。
      * 此方法返回一个包含所有字段类型的集合，这些类型定义了所需的导入。
@@ -22,9 +83,9 @@ public abstract class AbstractRequestStyle implements RequestStyle {
      * @param classFields 类的字段列表
      * @return 包含所有字段类型的集合
      */
-    public Set<PsiType> getFieldImportSet(List<PsiField> classFields) {
-        final Set<PsiType> result = new HashSet<>();
-        for (PsiField field : classFields) {
+    public Set<TypeInfo> getFieldImportSet(List<FieldInfo> classFields) {
+        final Set<TypeInfo> result = new HashSet<>();
+        for (FieldInfo field : classFields) {
             result.add(field.getType());
         }
         return result;
@@ -32,33 +93,52 @@ public abstract class AbstractRequestStyle implements RequestStyle {
 
     /**
      * 生成所有字段的对象实例，并为其设置默认值。
-     * 此方法基于给定的方法调用信息，为每个参数生成一个对象实例，并设置默认值。
+     * 此方法基于给定的方法调用信息，为字段的每个调用点生成参数与返回值的对象实例以及对应的 when(...).thenReturn(...)。
      *
-     * @param methodCallInfo 方法调用信息
+     * @param methodCallInfo        方法调用信息
+     * @param declaredInstanceNames 当前测试方法中已经声明的实例变量名，同名实例只声明一次
      * @return 生成的代码字符串
      */
-    public String allFieldObjectInstance(MethodCallInfo methodCallInfo) {
+    public String allFieldObjectInstance(MethodCallInfo methodCallInfo, Set<String> declaredInstanceNames) {
+        final StringBuilder result = new StringBuilder();
+        for (CallSiteInfo callSite : methodCallInfo.getCallSites()) {
+            result.append(callSiteObjectInstance(methodCallInfo.getFieldName(), callSite, declaredInstanceNames));
+        }
+        return result.toString();
+    }
+
+    /**
+     * 为单个调用点生成参数与返回值的对象实例，以及对应的 when(...).thenReturn(...)。
+     *
+     * @param fieldName             被调用的注入字段名称
+     * @param callSite              调用点信息
+     * @param declaredInstanceNames 当前测试方法中已经声明的实例变量名
+     * @return 生成的代码字符串
+     */
+    private String callSiteObjectInstance(String fieldName, CallSiteInfo callSite, Set<String> declaredInstanceNames) {
         final StringBuilder result = new StringBuilder();
         List<String> methodArgumentsTypeList = new ArrayList<>();
-        // MethodCallInfo-> 处理调用的参数类型
-        Map<String, PsiType> argsNameAndTypes = methodCallInfo.getArgsNameAndTypes();
+        // CallSiteInfo-> 处理调用的参数类型
+        Map<String, TypeInfo> argsNameAndTypes = callSite.getArgsNameAndTypes();
         if (argsNameAndTypes != null && !argsNameAndTypes.isEmpty()) {
-            for (Map.Entry<String, PsiType> entry : argsNameAndTypes.entrySet()) {
-                PsiType eachParamPsiType = entry.getValue();
-                // 如果不是自定义类型，直接取得类型的默认值即可
-                if (TypeClassifier.notCustomType(eachParamPsiType)) {
-                    methodArgumentsTypeList.add(TypeClassifier.getDefaultValue(eachParamPsiType));
+            for (Map.Entry<String, TypeInfo> entry : argsNameAndTypes.entrySet()) {
+                TypeInfo eachParamType = entry.getValue();
+                // 如果不是自定义类型，直接取得类型的默认值即可，容器类型会先构造元素对象
+                if (eachParamType.notCustomType()) {
+                    methodArgumentsTypeList.add(defaultValueExpression(eachParamType, "Mock", result, declaredInstanceNames));
                 } else {
-                    if (TypeClassifier.isInterfaceOrAbstractClassOrEnum(eachParamPsiType)) {
+                    if (eachParamType.isInterfaceOrAbstractClassOrEnum()) {
                         // 如果是接口、抽象类或枚举，参数直接给“null”即可
                         methodArgumentsTypeList.add("null");
                     } else {
                         // 否则认为是自定义类型，自定义类型可以使用 new 关键字（TODO 风险：没有无参构造）
-                        PsiClass psiClass = PsiUtil.resolveClassInType(eachParamPsiType);// 主要是为了取 类名的精简名字
-                        if (psiClass != null) {
-                            String instanceName = StringProcessor.toLowercaseFirst(psiClass.getName()) + "Mock";
+                        String simpleClassName = eachParamType.getClassName();// 主要是为了取 类名的精简名字
+                        if (simpleClassName != null) {
+                            String instanceName = StringProcessor.toLowercaseFirst(simpleClassName) + "Mock";
                             methodArgumentsTypeList.add(instanceName);
-                            result.append(fieldObjectInstance(eachParamPsiType, instanceName));
+                            if (declaredInstanceNames.add(instanceName)) {
+                                result.append(fieldObjectInstance(eachParamType, instanceName));
+                            }
                         } else {
                             // 不应该出现的情况，防止丢参数，给一个默认值（TODO 风险：上述判断不严谨会出现此情况）
                             methodArgumentsTypeList.add("null");
@@ -67,31 +147,33 @@ public abstract class AbstractRequestStyle implements RequestStyle {
                 }
             }
         }
-        // MethodCallInfo-> 处理调用的返回类型
+        // CallSiteInfo-> 处理调用的返回类型
         String instanceName = "";
-        PsiType methodReturnType = methodCallInfo.getReturnType();
-        if (methodReturnType == null || TypeClassifier.isVoidOrJavaLangVoid(methodReturnType)) {
+        TypeInfo methodReturnType = callSite.getReturnType();
+        if (methodReturnType == null || methodReturnType.isVoidType()) {
             result.append(
                     String.format("\t\t// when(%s(%s)).thenReturn(%s);\n",
-                            methodCallInfo.getFieldName() + "." + methodCallInfo.getMethodName(),
+                            fieldName + "." + callSite.getMethodName(),
                             String.join(",", methodArgumentsTypeList),
                             instanceName
                     )
             );
             return result.toString();
         }
-        if (TypeClassifier.notCustomType(methodReturnType)) {
-            instanceName = TypeClassifier.getDefaultValue(methodReturnType);
+        if (methodReturnType.notCustomType()) {
+            instanceName = defaultValueExpression(methodReturnType, "Mock", result, declaredInstanceNames);
         } else {
-            if (TypeClassifier.isInterfaceOrAbstractClassOrEnum(methodReturnType)) {
+            if (methodReturnType.isInterfaceOrAbstractClassOrEnum()) {
                 // 如果是接口或抽象类，返回值直接给“null”即可
                 instanceName = "null";
             } else {
                 // 否则认为是自定义类型，自定义类型可以使用 new 关键字（TODO 风险：没有无参构造）
-                PsiClass psiClass = PsiUtil.resolveClassInType(methodReturnType);// 主要是为了取 类名的精简名字
-                if (psiClass != null) {
-                    instanceName = StringProcessor.toLowercaseFirst(psiClass.getName()) + "Mock";
-                    result.append(fieldObjectInstance(methodReturnType, instanceName));
+                String simpleClassName = methodReturnType.getClassName();// 主要是为了取 类名的精简名字
+                if (simpleClassName != null) {
+                    instanceName = StringProcessor.toLowercaseFirst(simpleClassName) + "Mock";
+                    if (declaredInstanceNames.add(instanceName)) {
+                        result.append(fieldObjectInstance(methodReturnType, instanceName));
+                    }
                 } else {
                     // 不应该出现的情况，防止丢参数，给一个默认值（TODO 风险：上述判断不严谨会出现此情况）
                     instanceName = "null";
@@ -100,7 +182,7 @@ public abstract class AbstractRequestStyle implements RequestStyle {
         }
         result.append(
                 String.format("\t\twhen(%s(%s)).thenReturn(%s);\n",
-                        methodCallInfo.getFieldName() + "." + methodCallInfo.getMethodName(),
+                        fieldName + "." + callSite.getMethodName(),
                         String.join(",", methodArgumentsTypeList),
                         instanceName
                 )
@@ -108,43 +190,39 @@ public abstract class AbstractRequestStyle implements RequestStyle {
         return result.toString();
     }
 
+    /**
+     * 生成非自定义类型的值表达式。
+     * 容器类型（List、Set、Map、Optional、Page、数组等）的元素为可实例化的自定义类型时，
+     * 先构造元素对象，再用元素变量填充容器；其他类型直接使用类型的默认值。
+     *
+     * @param typeInfo              值的类型
+     * @param elementNameSuffix     元素对象变量名的后缀，变量名形如 "元素类名首字母小写 + 后缀"
+     * @param out                   元素对象构造代码的输出
+     * @param declaredInstanceNames 当前测试方法中已经声明的实例变量名，同名实例只声明一次
+     * @return 值的代码表达式
+     */
+    protected String defaultValueExpression(TypeInfo typeInfo, String elementNameSuffix, StringBuilder out, Set<String> declaredInstanceNames) {
+        TypeInfo elementType = typeInfo.getElementType();
+        String template = typeInfo.getDefaultValueTemplate();
+        if (template == null || elementType == null || elementType.getClassName() == null) {
+            return typeInfo.getDefaultValue();
+        }
+        String elementName = StringProcessor.toLowercaseFirst(elementType.getClassName()) + elementNameSuffix;
+        if (declaredInstanceNames.add(elementName)) {
+            out.append(fieldObjectInstance(elementType, elementName));
+        }
+        return template.replace(TypeClassifier.ELEMENT_PLACEHOLDER, elementName);
+    }
+
     /**
      * 为特定类型创建一个实例，并为其所有 setter 方法设置默认值。
-     * 此方法首先为指定类型创建一个新实例，然后为该类中所有以 "set" 开头的方法设置默认值。
+     * setter 参数为自定义类型时，会按配置的深度先构造嵌套对象，详见 FixtureBuilder。
      *
-     * @param psiType    需要创建实例的类型
+     * @param typeInfo   需要创建实例的类型
      * @param simpleName 实例的变量名
      * @return 返回包含实例化和 setter 方法调用的代码字符串
      */
-    public String fieldObjectInstance(PsiType psiType, String simpleName) {
-        if (TypeClassifier.notCustomType(psiType)) {
-            return "";
-        }
-        StringBuilder result = new StringBuilder();
-        PsiClass psiClass = PsiUtil.resolveClassInType(psiType);
-        if (psiClass != null) {
-            result.append(
-                    String.format("\t\t%s %s = new %s();\n",
-                            psiClass.getName(), // 类的简单名称
-                            simpleName,         // 实例变量名
-                            psiClass.getName()  // 再次使用类的简单名称
-                    )
-            );
-            for (PsiMethod method : psiClass.getMethods()) {
-                if (method.getName().startsWith("set")) {
-                    PsiParameterList parameterList = method.getParameterList();
-                    for (PsiParameter parameter : parameterList.getParameters()) {
-                        result.append(
-                                String.format("\t\t%s.%s(%s);\n",
-                                        simpleName,            // 实例变量名
-                                        method.getName(),      // 方法名
-                                        TypeClassifier.getDefaultValue(parameter.getType()) // 参数类型的默认值
-                                )
-                        );
-                    }
-                }
-            }
-        }
-        return result.toString();
+    public String fieldObjectInstance(TypeInfo typeInfo, String simpleName) {
+        return fixtureBuilder.build(typeInfo, simpleName);
     }
 }
@@ -0,0 +1,100 @@
+package com.igetcool.icodetest.style;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CodeTemplate 是预先编译的代码模板。
+ * 模板文本中的 ${name} 为变量，编译时把模板拆分为交替出现的文本片段与变量名，
+ * 渲染时按顺序一次写入输出，不再重复解析模板，也不使用 String.format。
+ * <p>
+ * 相同文本的模板只编译一次，编译结果在所有批次之间共享；用户修改模板后，新的文本会被编译为新的模板。
+ */
+public final class CodeTemplate {
+
+    private static final String VARIABLE_START = "${";
+
+    private static final String VARIABLE_END = "}";
+
+    /**
+     * 以模板文本为键的编译结果。
+     */
+    private static final Map<String, CodeTemplate> COMPILED_TEMPLATES = new ConcurrentHashMap<>();
+
+    /**
+     * 文本片段，比变量多一个：片段0、变量0、片段1、变量1 …… 片段n。
+     */
+    private final String[] literals;
+
+    private final String[] variables;
+
+    private CodeTemplate(String[] literals, String[] variables) {
+        this.literals = literals;
+        this.variables = variables;
+    }
+
+    /**
+     * 获取模板文本的编译结果，同一文本只编译一次。
+     *
+     * @param text 模板文本
+     * @return 编译后的模板
+     */
+    public static CodeTemplate compile(String text) {
+        CodeTemplate template = COMPILED_TEMPLATES.get(text);
+        if (template == null) {
+            template = parse(text);
+            CodeTemplate previous = COMPILED_TEMPLATES.putIfAbsent(text, template);
+            if (previous != null) {
+                template = previous;
+            }
+        }
+        return template;
+    }
+
+    /**
+     * 把模板拆分为文本片段与变量名，没有闭合的 ${ 按普通文本处理。
+     *
+     * @param text 模板文本
+     * @return 编译后的模板
+     */
+    private static CodeTemplate parse(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int literalStart = 0;
+        int variableStart = text.indexOf(VARIABLE_START);
+        while (variableStart >= 0) {
+            int variableEnd = text.indexOf(VARIABLE_END, variableStart + VARIABLE_START.length());
+            if (variableEnd < 0) {
+                break;
+            }
+            literals.add(text.substring(literalStart, variableStart));
+            variables.add(text.substring(variableStart + VARIABLE_START.length(), variableEnd).trim());
+            literalStart = variableEnd + VARIABLE_END.length();
+            variableStart = text.indexOf(VARIABLE_START, literalStart);
+        }
+        literals.add(text.substring(literalStart));
+        return new CodeTemplate(literals.toArray(new String[0]), variables.toArray(new String[0]));
+    }
+
+    /**
+     * 渲染模板，把结果追加到给定的输出中。
+     * 没有提供值的变量原样输出，便于在生成的代码中发现拼写错误的变量名。
+     *
+     * @param out    渲染结果的输出，调用方可以在多次渲染之间复用
+     * @param values 变量的值
+     */
+    public void renderTo(StringBuilder out, Map<String, ? extends CharSequence> values) {
+        for (int i = 0; i < variables.length; i++) {
+            out.append(literals[i]);
+            CharSequence value = values.get(variables[i]);
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append(VARIABLE_START).append(variables[i]).append(VARIABLE_END);
+            }
+        }
+        out.append(literals[variables.length]);
+    }
+}
@@ -0,0 +1,187 @@
+package com.igetcool.icodetest.style;
+
+import com.igetcool.icodetest.models.SetterInfo;
+import com.igetcool.icodetest.models.TypeInfo;
+import com.igetcool.icodetest.utils.TypeClassifier;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * FixtureBuilder 负责生成测试数据对象的构造代码。
+ * 自定义类型的 setter 参数如果也是自定义类型，会按配置深度先构造嵌套对象再传入 setter；
+ * 参数是元素为自定义类型的容器时，同样先构造元素对象，再用它填充容器；
+ * 当前构造路径上已经出现的类型（自引用或相互引用）不再展开，参数保持默认值；
+ * 同一个对象图中重复出现的嵌套类型只构造一次，兄弟节点共享同一个实例。
+ * <p>
+ * 每个类型的构造计划在一次批量生成中只计算一次，保存为以变量名为占位符的代码模板，
+ * 之后再次出现时只需替换变量名。RequestStyle 在每次批量生成时新建，因此缓存的生命周期与批次一致。
+ */
+public class FixtureBuilder {
+
+    /**
+     * 代码模板中根对象变量名的占位符，嵌套对象的变量名以根对象变量名为前缀。
+     */
+    private static final String VARIABLE_PLACEHOLDER = "${variable}";
+
+    /**
+     * 嵌套对象的最大构造深度，0 表示只填充第一层 setter。
+     */
+    private final int fixtureDepth;
+
+    /**
+     * 以类的完全限定名为键的构造计划。
+     */
+    private final Map<String, FixturePlan> plansByQualifiedName = new ConcurrentHashMap<>();
+
+    public FixtureBuilder(int fixtureDepth) {
+        this.fixtureDepth = fixtureDepth;
+    }
+
+    /**
+     * 生成构造指定类型对象的代码，包括嵌套对象的构造以及所有 setter 调用。
+     *
+     * @param typeInfo     需要创建实例的类型
+     * @param variableName 实例的变量名
+     * @return 构造代码；如果类型不是自定义类型，则返回空字符串
+     */
+    public String build(TypeInfo typeInfo, String variableName) {
+        if (typeInfo.notCustomType() || typeInfo.getClassName() == null) {
+            return "";
+        }
+        return getPlan(typeInfo).template.replace(VARIABLE_PLACEHOLDER, variableName);
+    }
+
+    /**
+     * 获取类型的构造计划。
+     * 缓存项只在 setter 列表和嵌套类型表与计算时相同时有效，提取缓存因 PSI 修改而失效后会重新计算。
+     * 从持久化缓存读取的快照每次都是新的实例，因此实例不同时再按内容比较。
+     *
+     * @param typeInfo 需要创建实例的类型
+     * @return 构造计划
+     */
+    private FixturePlan getPlan(TypeInfo typeInfo) {
+        String qualifiedName = typeInfo.getQualifiedName();
+        FixturePlan cached = qualifiedName == null ? null : plansByQualifiedName.get(qualifiedName);
+        if (cached != null && cached.matches(typeInfo)) {
+            return cached;
+        }
+        StringBuilder template = new StringBuilder();
+        Set<String> path = new HashSet<>();
+        path.add(qualifiedName);
+        Set<String> usedVariables = new HashSet<>();
+        usedVariables.add(VARIABLE_PLACEHOLDER);
+        appendInstance(template, typeInfo, VARIABLE_PLACEHOLDER, typeInfo.getNestedTypes(), 1, path, new HashMap<>(), usedVariables);
+        FixturePlan plan = new FixturePlan(typeInfo.getSetters(), typeInfo.getNestedTypes(), template.toString());
+        if (qualifiedName != null) {
+            plansByQualifiedName.put(qualifiedName, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * 追加一个对象的构造代码：先构造它需要的嵌套对象，再声明该对象并调用所有 setter。
+     *
+     * @param out           代码输出
+     * @param typeInfo      当前对象的类型
+     * @param variable      当前对象的变量名
+     * @param nestedTypes   根类型的嵌套类型表
+     * @param depth         当前对象的 setter 所处的深度，根对象为 1
+     * @param path          当前构造路径上的类型，用于检测循环引用
+     * @param builtObjects  已经构造的嵌套类型及其变量名，兄弟节点共享
+     * @param usedVariables 已经使用的变量名
+     */
+    private void appendInstance(
+            StringBuilder out,
+            TypeInfo typeInfo,
+            String variable,
+            Map<String, TypeInfo> nestedTypes,
+            int depth,
+            Set<String> path,
+            Map<String, String> builtObjects,
+            Set<String> usedVariables
+    ) {
+        List<SetterInfo> setters = typeInfo.getSetters();
+        List<String> arguments = new ArrayList<>(setters.size());
+        for (SetterInfo setter : setters) {
+            String argument = setter.getDefaultValue();
+            String nestedTypeName = setter.getNestedTypeName();
+            TypeInfo nestedType = nestedTypeName == null ? null : nestedTypes.get(nestedTypeName);
+            if (nestedType != null && nestedType.getClassName() != null
+                    && depth <= fixtureDepth && !path.contains(nestedTypeName)) {
+                String nestedVariable = builtObjects.get(nestedTypeName);
+                if (nestedVariable == null) {
+                    nestedVariable = newVariable(nestedType.getClassName(), usedVariables);
+                    path.add(nestedTypeName);
+                    appendInstance(out, nestedType, nestedVariable, nestedTypes, depth + 1, path, builtObjects, usedVariables);
+                    path.remove(nestedTypeName);
+                    builtObjects.put(nestedTypeName, nestedVariable);
+                }
+                // 容器类型的参数使用嵌套对象填充容器
+                argument = setter.getDefaultValueTemplate() == null
+                        ? nestedVariable
+                        : setter.getDefaultValueTemplate().replace(TypeClassifier.ELEMENT_PLACEHOLDER, nestedVariable);
+            }
+            arguments.add(argument);
+        }
+        String simpleClassName = typeInfo.getClassName();
+        out.append("\t\t").append(simpleClassName).append(" ").append(variable)
+                .append(" = new ").append(simpleClassName).append("();\n");
+        for (int i = 0; i < setters.size(); i++) {
+            out.append("\t\t").append(variable).append(".").append(setters.get(i).getMethodName())
+                    .append("(").append(arguments.get(i)).append(");\n");
+        }
+    }
+
+    /**
+     * 为嵌套对象生成变量名，形如 "根变量名 + 类名"，重名时追加序号。
+     *
+     * @param simpleClassName 嵌套对象的类名
+     * @param usedVariables   已经使用的变量名
+     * @return 新的变量名
+     */
+    private String newVariable(String simpleClassName, Set<String> usedVariables) {
+        String variable = VARIABLE_PLACEHOLDER + simpleClassName;
+        for (int index = 2; !usedVariables.add(variable); index++) {
+            variable = VARIABLE_PLACEHOLDER + simpleClassName + index;
+        }
+        return variable;
+    }
+
+    /**
+     * 缓存的构造计划，以及计算它所依据的 setter 列表和嵌套类型表。
+     */
+    private static final class FixturePlan {
+
+        private final List<SetterInfo> setters;
+
+        private final Map<String, TypeInfo> nestedTypes;
+
+        private final String template;
+
+        private FixturePlan(List<SetterInfo> setters, Map<String, TypeInfo> nestedTypes, String template) {
+            this.setters = setters;
+            this.nestedTypes = nestedTypes;
+            this.template = template;
+        }
+
+        /**
+         * 计划是否仍适用于该类型。
+         * 嵌套类型表中的 TypeInfo 只带有自身的 setter 列表，比较键与各自的 setter 列表即可覆盖计划依赖的全部内容。
+         */
+        private boolean matches(TypeInfo typeInfo) {
+            if (setters == typeInfo.getSetters() && nestedTypes == typeInfo.getNestedTypes()) {
+                return true;
+            }
+            if (!setters.equals(typeInfo.getSetters()) || !nestedTypes.keySet().equals(typeInfo.getNestedTypes().keySet())) {
+                return false;
+            }
+            for (Map.Entry<String, TypeInfo> entry : typeInfo.getNestedTypes().entrySet()) {
+                if (!nestedTypes.get(entry.getKey()).getSetters().equals(entry.getValue().getSetters())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
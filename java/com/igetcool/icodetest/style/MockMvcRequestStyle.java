@@ -1,14 +1,8 @@
 package com.igetcool.icodetest.style;
 
+import com.igetcool.icodetest.boot.SettingsManager;
 import com.igetcool.icodetest.constants.Constants;
-import com.igetcool.icodetest.models.ClassMetaInfo;
-import com.igetcool.icodetest.models.MethodCallInfo;
-import com.igetcool.icodetest.models.MethodCoreBase;
-import com.igetcool.icodetest.models.MethodMetaInfo;
-import com.igetcool.icodetest.utils.StringProcessor;
-import com.igetcool.icodetest.utils.TypeClassifier;
-import com.intellij.psi.PsiField;
-import com.intellij.psi.PsiType;
+import com.igetcool.icodetest.models.*;
 
 import java.util.*;
 
@@ -18,6 +12,11 @@ import java.util.*;
  */
 public class MockMvcRequestStyle extends AbstractRequestStyle {
 
+    /**
+     * 编译后的测试方法模板，RequestStyle 在每次批量生成时新建，因此总是使用最新的模板设置。
+     */
+    private final CodeTemplate methodTemplate = CodeTemplate.compile(SettingsManager.INSTANCE.getMethodTemplateMock());
+
     /**
      * 获取请求风格的标识符。
      *
@@ -32,10 +31,10 @@ public class MockMvcRequestStyle extends AbstractRequestStyle {
      * 获取方法集合所需的导入，仅包含调用方法时所需的类型。
      *
      * @param methodCoreBases 包含方法核心信息的列表
-     * @return 返回一个包含所有必需导入的 PsiType 的集合
+     * @return 返回一个包含所有必需导入的 TypeInfo 的集合
      */
     @Override
-    public Set<PsiType> getMethodImportSet(List<MethodCoreBase> methodCoreBases) {
+    public Set<TypeInfo> getMethodImportSet(List<MethodCoreBase> methodCoreBases) {
         return new HashSet<>(callMethodImportSet(methodCoreBases));
     }
 
@@ -47,9 +46,9 @@ public class MockMvcRequestStyle extends AbstractRequestStyle {
      * @return 返回测试类字段定义的代码字符串
      */
     @Override
-    public String generateTestClassField(List<PsiField> classFields, ClassMetaInfo classMetaInfo) {
+    public String generateTestClassField(List<FieldInfo> classFields, ClassMetaInfo classMetaInfo) {
         final StringBuilder result = new StringBuilder();
-        for (PsiField field : classFields) {
+        for (FieldInfo field : classFields) {
             String name = field.getType().getPresentableText();
             result.append("\t@Mock\n").append(String.format("\tprivate %s %s;\n", name, field.getName()));
         }
@@ -65,34 +64,7 @@ public class MockMvcRequestStyle extends AbstractRequestStyle {
      */
     @Override
     public String generateTestClassMethod(List<MethodCoreBase> methodCoreBases, ClassMetaInfo classMetaInfo) {
-        final StringBuilder result = new StringBuilder();
-        for (MethodCoreBase methodCoreBase : methodCoreBases) {
-            final MethodMetaInfo methodMetaInfo = methodCoreBase.getMethodMetaInfo();
-            result.append("\t@Test").append("\n");
-            result.append("\tpublic void test")
-                    .append(StringProcessor.toCapitalize(methodCoreBase.getMethodMetaInfo().getMethodName()))
-                    .append("_")
-                    .append(UUID.randomUUID().toString().replace("-", ""))
-                    .append("() throws Exception {\n\n");
-            result.append("\t\t// when ... thenReturn ...\n\n");
-            for (MethodCallInfo methodCallInfo : methodCoreBase.getMethodCallInfos()) {
-                result.append(allFieldObjectInstance(methodCallInfo));
-            }
-            result.append("\n");
-            result.append(callMethod(methodMetaInfo, classMetaInfo));
-            result.append("\n");
-            result.append("\t\t// Verify the results\n\n")
-                    .append("\t\t// 断言对象为null或不为null: isNull() | isNotNull() \n")
-                    .append("\t\t// 断言字符串、集合、数组或Iterable对象为空或不为空: isEmpty() | isNotEmpty() \n")
-                    .append("\t\t// 断言两个对象相等: isEqualTo() \n")
-                    .append("\t\t//assertThat(object).isNull();\n")
-                    .append("\t\t//assertThat(object).isNotNull();\n")
-                    .append("\t\t//assertThat(object).isEmpty();\n")
-                    .append("\t\t//assertThat(object).isNotEmpty();\n")
-                    .append("\t\tassertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());\n");
-            result.append("\t}\n");
-        }
-        return result.toString();
+        return renderTestMethods(methodTemplate, methodCoreBases, classMetaInfo);
     }
 
     /**
@@ -121,13 +93,13 @@ public class MockMvcRequestStyle extends AbstractRequestStyle {
                 break;
             default:
                 int i = 0;
-                Map<String, PsiType> argsNameAndTypes = methodMetaInfo.getArgsNameAndTypes();
-                for (Map.Entry<String, PsiType> entry : argsNameAndTypes.entrySet()) {
+                Map<String, TypeInfo> argsNameAndTypes = methodMetaInfo.getArgsNameAndTypes();
+                for (Map.Entry<String, TypeInfo> entry : argsNameAndTypes.entrySet()) {
                     String value = String.format("\t\t\t\t.param(\"%s\", \"%s\")\n",
                             entry.getKey().trim(),
-                            TypeClassifier.isStringType(entry.getValue())
+                            entry.getValue().isStringType()
                                     ? entry.getKey().trim()
-                                    : TypeClassifier.getDefaultValue(entry.getValue()));
+                                    : entry.getValue().getDefaultValue());
                     result.append(value);
                 }
                 break;
@@ -141,22 +113,24 @@ public class MockMvcRequestStyle extends AbstractRequestStyle {
      * 获取调用方法时所需的导入集合。
      *
      * @param methodCoreBases 包含方法核心信息的列表
-     * @return 返回一个包含所有必需导入的 PsiType 的集合
+     * @return 返回一个包含所有必需导入的 TypeInfo 的集合
      */
-    private Set<PsiType> callMethodImportSet(List<MethodCoreBase> methodCoreBases) {
-        final Set<PsiType> result = new HashSet<>();
+    private Set<TypeInfo> callMethodImportSet(List<MethodCoreBase> methodCoreBases) {
+        final Set<TypeInfo> result = new HashSet<>();
         for (MethodCoreBase methodCoreBase : methodCoreBases) {
             List<MethodCallInfo> methodCallInfos = methodCoreBase.getMethodCallInfos();
             for (MethodCallInfo methodCallInfo : methodCallInfos) {
-                Map<String, PsiType> argsNameAndTypes = methodCallInfo.getArgsNameAndTypes();
-                if (argsNameAndTypes == null) {
-                    continue;
-                }
-                for (Map.Entry<String, PsiType> entry : argsNameAndTypes.entrySet()) {
-                    result.add(entry.getValue());
+                for (CallSiteInfo callSite : methodCallInfo.getCallSites()) {
+                    Map<String, TypeInfo> argsNameAndTypes = callSite.getArgsNameAndTypes();
+                    if (argsNameAndTypes == null) {
+                        continue;
+                    }
+                    for (Map.Entry<String, TypeInfo> entry : argsNameAndTypes.entrySet()) {
+                        result.add(entry.getValue());
+                    }
+                    TypeInfo methodReturnType = callSite.getReturnType();
+                    result.add(methodReturnType);
                 }
-                PsiType methodReturnType = methodCallInfo.getReturnType();
-                result.add(methodReturnType);
             }
         }
         return result;
@@ -1,10 +1,6 @@
 package com.igetcool.icodetest.style;
 
-import com.igetcool.icodetest.models.ClassMetaInfo;
-import com.igetcool.icodetest.models.MethodCoreBase;
-import com.igetcool.icodetest.models.MethodMetaInfo;
-import com.intellij.psi.PsiField;
-import com.intellij.psi.PsiType;
+import com.igetcool.icodetest.models.*;
 
 import java.util.List;
 import java.util.Set;
@@ -26,21 +22,21 @@ public interface RequestStyle {
 
     /**
      * 根据类的字段集合确定所需的导入。
-     * 此方法分析给定的字段集合，并返回一个包含所有必需导入的PsiType的集合。
+     * 此方法分析给定的字段集合，并返回一个包含所有必需导入的TypeInfo的集合。
      *
      * @param classFields 类的字段集合
-     * @return 一个包含所有必需导入的PsiType的集合。
+     * @return 一个包含所有必需导入的TypeInfo的集合。
      */
-    Set<PsiType> getFieldImportSet(List<PsiField> classFields);
+    Set<TypeInfo> getFieldImportSet(List<FieldInfo> classFields);
 
     /**
      * 根据方法集合确定所需的导入。
-     * 此方法分析给定的方法集合，并返回一个包含所有必需导入的PsiType的集合。
+     * 此方法分析给定的方法集合，并返回一个包含所有必需导入的TypeInfo的集合。
      *
      * @param methodCoreBases 测试方法的核心信息集合
-     * @return 一个包含所有必需导入的PsiType的集合。
+     * @return 一个包含所有必需导入的TypeInfo的集合。
      */
-    Set<PsiType> getMethodImportSet(List<MethodCoreBase> methodCoreBases);
+    Set<TypeInfo> getMethodImportSet(List<MethodCoreBase> methodCoreBases);
 
     /**
      * 生成方法调用的代码字符串。
@@ -60,7 +56,7 @@ public interface RequestStyle {
      * @param classMetaInfo 类的元信息
      * @return 测试类字段定义的代码字符串。
      */
-    String generateTestClassField(List<PsiField> classFields, ClassMetaInfo classMetaInfo);
+    String generateTestClassField(List<FieldInfo> classFields, ClassMetaInfo classMetaInfo);
 
     /**
      * 生成测试类的方法定义。
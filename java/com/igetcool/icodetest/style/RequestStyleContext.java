@@ -1,9 +1,9 @@
 package com.igetcool.icodetest.style;
 
 import com.igetcool.icodetest.models.ClassMetaInfo;
+import com.igetcool.icodetest.models.FieldInfo;
 import com.igetcool.icodetest.models.MethodCoreBase;
-import com.intellij.psi.PsiField;
-import com.intellij.psi.PsiType;
+import com.igetcool.icodetest.models.TypeInfo;
 
 import java.util.List;
 import java.util.Set;
@@ -41,20 +41,20 @@ public class RequestStyleContext {
     /**
      * 根据提供的字段集合获取所需的导入集合。
      *
-     * @param psiFields 字段集合
-     * @return 返回一个包含所有必需导入的 PsiType 的集合
+     * @param classFields 字段集合
+     * @return 返回一个包含所有必需导入的 TypeInfo 的集合
      */
-    public Set<PsiType> getFieldImportSet(List<PsiField> psiFields) {
-        return requestStyle.getFieldImportSet(psiFields);
+    public Set<TypeInfo> getFieldImportSet(List<FieldInfo> classFields) {
+        return requestStyle.getFieldImportSet(classFields);
     }
 
     /**
      * 根据提供的方法核心信息集合获取所需的导入集合。
      *
      * @param methodCoreBases 方法核心信息集合
-     * @return 返回一个包含所有必需导入的 PsiType 的集合
+     * @return 返回一个包含所有必需导入的 TypeInfo 的集合
      */
-    public Set<PsiType> getMethodImportSet(List<MethodCoreBase> methodCoreBases) {
+    public Set<TypeInfo> getMethodImportSet(List<MethodCoreBase> methodCoreBases) {
         return requestStyle.getMethodImportSet(methodCoreBases);
     }
 
@@ -65,7 +65,7 @@ public class RequestStyleContext {
      * @param classMetaInfo 类的元信息
      * @return 返回测试类字段定义的代码字符串
      */
-    public String generateTestClassField(List<PsiField> classFields, ClassMetaInfo classMetaInfo) {
+    public String generateTestClassField(List<FieldInfo> classFields, ClassMetaInfo classMetaInfo) {
         return requestStyle.generateTestClassField(classFields, classMetaInfo);
     }
 
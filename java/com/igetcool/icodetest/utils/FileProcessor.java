@@ -1,12 +1,33 @@
 package com.igetcool.icodetest.utils;
 
+import com.igetcool.icodetest.enums.WriteResult;
+
 import java.io.*;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.Arrays;
+import java.util.UUID;
 
 /**
  * 文件处理工具类
  */
 public class FileProcessor {
 
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 写出文件使用的字符集。
+     */
+    private static final Charset FILE_CHARSET = StandardCharsets.UTF_8;
+
+    /**
+     * 写出文件时临时文件的后缀。
+     */
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
     /**
      * 在指定目录及其子目录下搜索特定的文件。
      *
@@ -35,58 +56,174 @@ public class FileProcessor {
     }
 
     /**
-     * 读取整个Java文件的内容到一个字符串。
+     * 读取整个Java文件的内容到一个字符串，文件内容按原样返回，不转换换行符。
+     * 文件按 UTF-8 读取；以前按平台默认字符集写出的文件无法按 UTF-8 解码时，改用平台默认字符集读取。
      *
      * @param filePath Java文件的路径
      * @return Java文件的内容，如果发生错误，返回null
      */
     public static String readFileToString(String filePath) {
-        StringBuilder contentBuilder = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                contentBuilder.append(line).append(System.lineSeparator());
+        Path path = Paths.get(filePath);
+        try {
+            try {
+                return Files.readString(path, FILE_CHARSET);
+            } catch (CharacterCodingException e) {
+                return new String(Files.readAllBytes(path), Charset.defaultCharset());
             }
         } catch (IOException e) {
             e.printStackTrace();
             return null;
         }
-        return contentBuilder.toString();
     }
 
     /**
-     * 在指定的目录结构中创建文件，并写入内容。
+     * 在指定的目录结构中创建文件，并以 UTF-8 写入内容。
+     * 内容只生成一次，编码后的字节同时用于比较与写出；
+     * 写出时先写入同一目录下的临时文件，写完后再原子地移动到目标文件，
+     * 因此取消或异常中断的生成不会留下只写了一半的测试文件。
+     * 文件已存在且允许覆盖时，先比较新旧内容，内容相同则不写入，避免触发 VFS 刷新、重新索引与重新编译：
+     * 先比较字节数，字节数相同再读取文件逐字节比较。
      * 如果文件已存在，并且overwrite标志为false，则不覆盖文件。
      *
      * @param directoryPath 目标文件的目录路径。
      * @param fileName      要创建的文件名。
-     * @param content       文件内容。
+     * @param contentWriter 生成内容的函数，只被调用一次。
      * @param overwrite     是否覆盖已存在的文件。
-     * @return 创建并写入内容成功返回true，否则返回false。
+     * @return 写入结果
      */
-    public static boolean createFileWithContent(
+    public static WriteResult writeFile(
             String directoryPath,
             String fileName,
-            String content,
+            ContentWriter contentWriter,
             boolean overwrite) {
-        File dir = new File(directoryPath);
-        if (!dir.exists()) {
-            if (!dir.mkdirs()) {
-                System.err.println("Unable to create directory: " + directoryPath);
-                return false;
-            }
+        Path dir = Paths.get(directoryPath);
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            System.err.println("Unable to create directory: " + directoryPath);
+            return WriteResult.FAILED;
         }
-        File file = new File(dir, fileName);
-        if (file.exists() && !overwrite) {
-            System.err.println("File already exists and overwrite is not allowed: " + file.getAbsolutePath());
-            return false;
+        Path file = dir.resolve(fileName);
+        if (Files.exists(file) && !overwrite) {
+            System.err.println("File already exists and overwrite is not allowed: " + file.toAbsolutePath());
+            return WriteResult.FAILED;
         }
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write(content);
-            return true;
+        Path tempFile = null;
+        try {
+            byte[] content = render(contentWriter);
+            if (Files.isRegularFile(file) && hasSameContent(file, content)) {
+                return WriteResult.UNCHANGED;
+            }
+            // 不使用 Files.createTempFile：它在 POSIX 系统上以 rw------- 创建文件，替换后测试文件只有所有者可读
+            Path candidate = dir.resolve("." + fileName + "." + UUID.randomUUID() + TEMP_FILE_SUFFIX);
+            try (OutputStream out = Files.newOutputStream(candidate, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                tempFile = candidate;
+                out.write(content);
+            }
+            copyPermissions(file, tempFile);
+            moveAtomically(tempFile, file);
+            return WriteResult.WRITTEN;
         } catch (IOException e) {
             System.err.println("Error occurred while writing to file: " + e.getMessage());
+            return WriteResult.FAILED;
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * 用临时文件替换目标文件。文件系统不支持原子移动时，退回为普通的替换。
+     *
+     * @param source 写好内容的临时文件
+     * @param target 目标文件
+     * @throws IOException 移动失败时抛出
+     */
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 目标文件已存在时，把它的 POSIX 权限复制到临时文件上，替换后权限保持不变；
+     * 新文件使用按 umask 创建的默认权限。不支持 POSIX 权限的文件系统不做处理。
+     *
+     * @param target   目标文件
+     * @param tempFile 写好内容的临时文件
+     * @throws IOException 读取或设置权限失败时抛出
+     */
+    private static void copyPermissions(Path target, Path tempFile) throws IOException {
+        if (!Files.exists(target)) {
+            return;
+        }
+        PosixFileAttributeView targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (targetView != null) {
+            Files.setPosixFilePermissions(tempFile, targetView.readAttributes().permissions());
+        }
+    }
+
+    /**
+     * 删除残留的临时文件，移动成功后临时文件已不存在。
+     *
+     * @param tempFile 临时文件，可以为null
+     */
+    private static void deleteQuietly(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            System.err.println("Unable to delete temporary file: " + tempFile);
+        }
+    }
+
+    /**
+     * 通过带缓冲的写入器生成内容，并按写出文件使用的字符集编码。
+     *
+     * @param contentWriter 生成内容的函数
+     * @return 编码后的内容
+     * @throws IOException 生成内容失败时抛出
+     */
+    private static byte[] render(ContentWriter contentWriter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, FILE_CHARSET))) {
+            contentWriter.writeTo(writer);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 判断已存在的文件内容是否与新内容相同。
+     * 字节数与文件大小不同时直接返回，相同时才读取文件比较。
+     *
+     * @param file    已存在的文件
+     * @param content 编码后的新内容
+     * @return 内容相同返回true；不同或比较失败返回false
+     */
+    private static boolean hasSameContent(Path file, byte[] content) {
+        try {
+            return content.length == Files.size(file) && Arrays.equals(content, Files.readAllBytes(file));
+        } catch (IOException e) {
+            // 无法比较时按内容变化处理，照常写入
             return false;
         }
     }
+
+    /**
+     * 向文件写入内容的函数。
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+
+        /**
+         * 把内容写入给定的写入器，写入器由调用方负责关闭。
+         *
+         * @param writer 内容的写入器
+         * @throws IOException 写入失败时抛出
+         */
+        void writeTo(Writer writer) throws IOException;
+    }
 }
@@ -50,20 +50,60 @@ public class I18nUtils extends DynamicBundle {
         return INSTANCE.message("Settings.Common.Template.Body");
     }
 
-    public static String selectMethod(String className) {
-        return INSTANCE.message("Dialog.Select.Method", className);
+    public static String methodTemplate() {
+        return INSTANCE.message("Settings.Method.Template");
+    }
+
+    public static String parallelGeneration() {
+        return INSTANCE.message("Settings.Parallel.Generation");
+    }
+
+    public static String documentWrite() {
+        return INSTANCE.message("Settings.Document.Write");
+    }
+
+    public static String incrementalGeneration() {
+        return INSTANCE.message("Settings.Incremental.Generation");
+    }
+
+    public static String resetConflictChoices() {
+        return INSTANCE.message("Settings.Conflict.Reset");
+    }
+
+    public static String fixtureDepth() {
+        return INSTANCE.message("Settings.Fixture.Depth");
+    }
+
+    public static String collectionSize() {
+        return INSTANCE.message("Settings.Fixture.Collection.Size");
     }
 
-    public static String overrideAll() {
-        return INSTANCE.message("Dialog.Override.All");
+    public static String selectMethod(String className) {
+        return INSTANCE.message("Dialog.Select.Method", className);
     }
 
     public static String overrideFile() {
         return INSTANCE.message("Dialog.Override.File");
     }
 
-    public static String overrideFileExists(String fileName) {
-        return INSTANCE.message("Dialog.Override.File.Exists", fileName);
+    public static String conflictFilesExist(int count) {
+        return INSTANCE.message("Dialog.Conflict.Files.Exist", count);
+    }
+
+    public static String conflictColumnFile() {
+        return INSTANCE.message("Dialog.Conflict.Column.File");
+    }
+
+    public static String conflictColumnAction() {
+        return INSTANCE.message("Dialog.Conflict.Column.Action");
+    }
+
+    public static String conflictApplyAll() {
+        return INSTANCE.message("Dialog.Conflict.Apply.All");
+    }
+
+    public static String conflictRemember() {
+        return INSTANCE.message("Dialog.Conflict.Remember");
     }
 
     public static String confirm() {
@@ -86,4 +126,12 @@ public class I18nUtils extends DynamicBundle {
         return INSTANCE.message("Text.RecursiveUnitTestAction");
     }
 
+    public static String moduleAction() {
+        return INSTANCE.message("Text.ModuleUnitTestAction");
+    }
+
+    public static String projectAction() {
+        return INSTANCE.message("Text.ProjectUnitTestAction");
+    }
+
 }
@@ -0,0 +1,160 @@
+package com.igetcool.icodetest.utils;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.*;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jps.model.java.JavaSourceRootProperties;
+import org.jetbrains.jps.model.java.JavaSourceRootType;
+
+import java.util.*;
+
+/**
+ * SourceRootMapper 根据 IDE 的项目模型确定源文件的包目录以及测试类应当写入的测试根目录。
+ * 源码根目录来自 ProjectFileIndex，每个模块的"源码根目录 -> 测试根目录"映射由 ModuleRootManager 计算一次，
+ * 缓存在模块上，项目的根目录配置发生变化时失效；因此 Maven、Gradle 的各种 source set 以及生成的源码根目录都可以正确处理，
+ * 每个文件只需一次查表。必须在读操作中调用。
+ */
+public class SourceRootMapper {
+
+    private static final Key<CachedValue<Map<VirtualFile, String>>> TEST_ROOTS_KEY = Key.create("icodetest.testRootsBySourceRoot");
+
+    /**
+     * 源码根目录的上一级目录名为 main 时，约定的测试根目录位于同级的 test 目录下，例如 src/main/java -> src/test/java。
+     */
+    private static final String MAIN_DIRECTORY_NAME = "main";
+
+    private static final String TEST_DIRECTORY_NAME = "test";
+
+    private SourceRootMapper() {
+    }
+
+    /**
+     * 获取文件所在的生产代码源码根目录。
+     *
+     * @param project 当前项目
+     * @param file    源文件
+     * @return 源码根目录；文件不在生产代码的源码根目录中时返回null
+     */
+    @Nullable
+    public static VirtualFile getSourceRoot(@NotNull Project project, @NotNull VirtualFile file) {
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+        if (!fileIndex.isInSourceContent(file) || fileIndex.isInTestSourceContent(file)) {
+            return null;
+        }
+        return fileIndex.getSourceRootForFile(file);
+    }
+
+    /**
+     * 获取源文件所在目录相对于源码根目录的路径，以 "/" 分隔，即包名对应的目录。
+     *
+     * @param project 当前项目
+     * @param file    源文件
+     * @return 包目录，默认包为空字符串；文件不在生产代码的源码根目录中时返回null
+     */
+    @Nullable
+    public static String getPackageDirectory(@NotNull Project project, @NotNull VirtualFile file) {
+        VirtualFile sourceRoot = getSourceRoot(project, file);
+        VirtualFile directory = file.getParent();
+        if (sourceRoot == null || directory == null) {
+            return null;
+        }
+        return VfsUtilCore.getRelativePath(directory, sourceRoot, '/');
+    }
+
+    /**
+     * 获取源文件对应的测试根目录。
+     *
+     * @param project 当前项目
+     * @param file    源文件
+     * @return 测试根目录的路径；无法确定时返回null
+     */
+    @Nullable
+    public static String getTestRoot(@NotNull Project project, @NotNull VirtualFile file) {
+        VirtualFile sourceRoot = getSourceRoot(project, file);
+        if (sourceRoot == null) {
+            return null;
+        }
+        Module module = ProjectFileIndex.getInstance(project).getModuleForFile(file);
+        if (module == null) {
+            return null;
+        }
+        return getTestRootsBySourceRoot(module).get(sourceRoot);
+    }
+
+    /**
+     * 获取源文件对应的测试类目录，即测试根目录下与源文件相同的包目录。
+     *
+     * @param project 当前项目
+     * @param file    源文件
+     * @return 测试类目录的路径；无法确定时返回null
+     */
+    @Nullable
+    public static String getTestDirectory(@NotNull Project project, @NotNull VirtualFile file) {
+        String testRoot = getTestRoot(project, file);
+        String packageDirectory = getPackageDirectory(project, file);
+        if (testRoot == null || packageDirectory == null) {
+            return null;
+        }
+        return packageDirectory.isEmpty() ? testRoot : testRoot + "/" + packageDirectory;
+    }
+
+    private static Map<VirtualFile, String> getTestRootsBySourceRoot(Module module) {
+        return CachedValuesManager.getManager(module.getProject()).getCachedValue(
+                module,
+                TEST_ROOTS_KEY,
+                () -> CachedValueProvider.Result.create(
+                        computeTestRootsBySourceRoot(module),
+                        ProjectRootManager.getInstance(module.getProject())
+                ),
+                false
+        );
+    }
+
+    /**
+     * 为模块的每个生产代码源码根目录确定测试根目录：
+     * 优先使用约定位置（同级的 test 目录），它已登记为测试根目录或者模块还没有任何测试根目录时都使用它；
+     * 否则使用模块中第一个不是生成代码的测试根目录。
+     */
+    private static Map<VirtualFile, String> computeTestRootsBySourceRoot(Module module) {
+        List<String> testRoots = new ArrayList<>();
+        for (ContentEntry contentEntry : ModuleRootManager.getInstance(module).getContentEntries()) {
+            for (SourceFolder sourceFolder : contentEntry.getSourceFolders(JavaSourceRootType.TEST_SOURCE)) {
+                JavaSourceRootProperties properties = sourceFolder.getJpsElement().getProperties(JavaSourceRootType.TEST_SOURCE);
+                if (properties == null || !properties.isForGeneratedSources()) {
+                    testRoots.add(VfsUtilCore.urlToPath(sourceFolder.getUrl()));
+                }
+            }
+        }
+        Map<VirtualFile, String> result = new HashMap<>();
+        for (VirtualFile sourceRoot : ModuleRootManager.getInstance(module).getSourceRoots(JavaSourceRootType.SOURCE)) {
+            String conventionalTestRoot = getConventionalTestRoot(sourceRoot);
+            if (conventionalTestRoot != null && (testRoots.isEmpty() || testRoots.contains(conventionalTestRoot))) {
+                result.put(sourceRoot, conventionalTestRoot);
+            } else if (!testRoots.isEmpty()) {
+                result.put(sourceRoot, testRoots.get(0));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Nullable
+    private static String getConventionalTestRoot(VirtualFile sourceRoot) {
+        VirtualFile sourceSetDirectory = sourceRoot.getParent();
+        if (sourceSetDirectory == null || !MAIN_DIRECTORY_NAME.equals(sourceSetDirectory.getName())) {
+            return null;
+        }
+        VirtualFile sourceSetsDirectory = sourceSetDirectory.getParent();
+        if (sourceSetsDirectory == null) {
+            return null;
+        }
+        return sourceSetsDirectory.getPath() + "/" + TEST_DIRECTORY_NAME + "/" + sourceRoot.getName();
+    }
+}
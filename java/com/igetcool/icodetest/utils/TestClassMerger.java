@@ -0,0 +1,122 @@
+package com.igetcool.icodetest.utils;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+
+import java.util.Objects;
+
+/**
+ * 测试类合并工具类
+ * <p>
+ * 把新生成的测试类合并到已存在的测试类中：只追加已存在的类中缺少的导入、字段和测试方法，
+ * 已存在的代码（包括手工修改过的测试方法）保持不变。
+ * 两段文本都解析为不关联磁盘文件的 PSI，按名称比较类成员，因此辅助方法、注释和字符串中的文本不会被误认为测试方法。
+ */
+public class TestClassMerger {
+
+    private static final String TEST_ANNOTATION_NAME = "Test";
+
+    /**
+     * 合并测试类文本，可以在任意线程中调用。
+     *
+     * @param project       当前项目
+     * @param existingText  已存在的测试类文本
+     * @param generatedText 新生成的完整测试类文本
+     * @return 合并后的测试类文本；已存在的文本中找不到类时原样返回
+     */
+    public static String merge(Project project, String existingText, String generatedText) {
+        return ReadAction.compute(() -> {
+            PsiFileFactory psiFileFactory = PsiFileFactory.getInstance(project);
+            PsiJavaFile existingFile = (PsiJavaFile) psiFileFactory.createFileFromText("Existing.java", JavaFileType.INSTANCE, existingText);
+            PsiJavaFile generatedFile = (PsiJavaFile) psiFileFactory.createFileFromText("Generated.java", JavaFileType.INSTANCE, generatedText);
+            PsiClass generatedClass = findTopLevelClass(generatedFile, null);
+            PsiClass existingClass = findTopLevelClass(existingFile, generatedClass != null ? generatedClass.getName() : null);
+            if (generatedClass == null || existingClass == null) {
+                return existingText;
+            }
+            mergeImports(existingFile, generatedFile);
+            mergeMembers(project, existingClass, generatedClass);
+            return existingFile.getText();
+        });
+    }
+
+    private static PsiClass findTopLevelClass(PsiJavaFile psiJavaFile, String className) {
+        PsiClass[] classes = psiJavaFile.getClasses();
+        for (PsiClass psiClass : classes) {
+            if (className == null || className.equals(psiClass.getName())) {
+                return psiClass;
+            }
+        }
+        return classes.length > 0 ? classes[0] : null;
+    }
+
+    private static void mergeImports(PsiJavaFile existingFile, PsiJavaFile generatedFile) {
+        PsiImportList existingImports = existingFile.getImportList();
+        PsiImportList generatedImports = generatedFile.getImportList();
+        if (existingImports == null || generatedImports == null) {
+            return;
+        }
+        for (PsiImportStatementBase generatedImport : generatedImports.getAllImportStatements()) {
+            if (!containsImport(existingImports, generatedImport)) {
+                existingImports.add(generatedImport.copy());
+            }
+        }
+    }
+
+    private static boolean containsImport(PsiImportList importList, PsiImportStatementBase importStatement) {
+        PsiJavaCodeReferenceElement reference = importStatement.getImportReference();
+        if (reference == null) {
+            return true;
+        }
+        for (PsiImportStatementBase existingImport : importList.getAllImportStatements()) {
+            PsiJavaCodeReferenceElement existingReference = existingImport.getImportReference();
+            if (existingReference != null
+                    && existingImport.isOnDemand() == importStatement.isOnDemand()
+                    && (existingImport instanceof PsiImportStaticStatement) == (importStatement instanceof PsiImportStaticStatement)
+                    && Objects.equals(existingReference.getQualifiedName(), reference.getQualifiedName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 追加缺少的字段（新的测试方法可能用到新注入的 Mock 对象）与缺少的测试方法，只比较名称。
+     */
+    private static void mergeMembers(Project project, PsiClass existingClass, PsiClass generatedClass) {
+        CodeStyleManager codeStyleManager = CodeStyleManager.getInstance(project);
+        PsiField[] existingFields = existingClass.getFields();
+        // 字段放在已有字段之后、方法之前，并保持生成时的顺序
+        PsiElement fieldAnchor = existingFields.length > 0 ? existingFields[existingFields.length - 1] : null;
+        for (PsiField generatedField : generatedClass.getFields()) {
+            if (existingClass.findFieldByName(generatedField.getName(), false) == null) {
+                fieldAnchor = fieldAnchor != null
+                        ? existingClass.addAfter(generatedField, fieldAnchor)
+                        : existingClass.add(generatedField);
+                codeStyleManager.reformat(fieldAnchor);
+            }
+        }
+        for (PsiMethod generatedMethod : generatedClass.getMethods()) {
+            if (isTestMethod(generatedMethod)
+                    && existingClass.findMethodsByName(generatedMethod.getName(), false).length == 0) {
+                codeStyleManager.reformat(existingClass.add(generatedMethod));
+            }
+        }
+    }
+
+    /**
+     * 非物理文件中的注解无法可靠地解析，按注解的简单名称判断，JUnit4 与 JUnit5 的 @Test 都可以识别。
+     */
+    private static boolean isTestMethod(PsiMethod psiMethod) {
+        for (PsiAnnotation annotation : psiMethod.getModifierList().getAnnotations()) {
+            PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+            if (reference != null && TEST_ANNOTATION_NAME.equals(reference.getReferenceName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
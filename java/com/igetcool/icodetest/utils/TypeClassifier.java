@@ -1,128 +1,228 @@
 package com.igetcool.icodetest.utils;
 
+import com.igetcool.icodetest.models.TypeClassification;
 import com.intellij.psi.*;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.psi.util.TypeConversionUtil;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+
 /**
  * 类型处理工具类
  */
 public class TypeClassifier {
 
     /**
-     * 判断给定的PsiType是否表示String类型。
-     *
-     * @param psiType 要检查的PsiType对象
-     * @return 如果PsiType是String类型，则返回true，否则返回false
+     * 容器默认值中元素位置的占位符。
+     * 元素为可实例化的自定义类型时，生成代码先构造元素对象，再用元素变量替换占位符。
      */
-    public static boolean isStringType(PsiType psiType) {
-        if (psiType instanceof PsiClassType) {
-            PsiClassType classType = (PsiClassType) psiType;
-            PsiClass psiClass = classType.resolve();
-            return psiClass != null && CommonClassNames.JAVA_LANG_STRING.equals(psiClass.getQualifiedName());
-        }
-        // 如果不是 PsiClassType 或者 PsiClass 不是 String 类型，则返回 false
-        return false;
-    }
+    public static final String ELEMENT_PLACEHOLDER = "${element}";
+
+    private static final String SPRING_DATA_PAGE = "org.springframework.data.domain.Page";
 
     /**
-     * 检查 PsiType 是否表示 void 或 Void 类型。
-     *
-     * @param psiType 要检查的 PsiType 对象
-     * @return 如果是 void 或 Void 类型返回 true，否则返回 false
+     * 默认值为 ArrayList 的容器类型。
      */
-    public static boolean isVoidOrJavaLangVoid(PsiType psiType) {
-        // 检查是否是基本类型的void
-        if (isVoidType(psiType)) {
-            return true;
-        }
-        // 检查是否是PsiClassType且是java.lang.Void
-        else if (isJavaLangVoidType(psiType)) {
-            return true;
-        }
-        // 如果两者都不是，则返回false
-        return false;
-    }
+    private static final Set<String> LIST_TYPES = new HashSet<>(Arrays.asList(
+            CommonClassNames.JAVA_LANG_ITERABLE,
+            CommonClassNames.JAVA_UTIL_COLLECTION,
+            CommonClassNames.JAVA_UTIL_LIST,
+            CommonClassNames.JAVA_UTIL_ARRAY_LIST
+    ));
 
     /**
-     * 检查 PsiType 是否表示 void 或 Void 类型。
-     *
-     * @param psiType 要检查的 PsiType 对象
-     * @return 如果不是 void 或 Void 类型返回 true，否则返回 false
+     * 默认值为 HashSet 的容器类型。
      */
-    public static boolean notVoidOrJavaLangVoid(PsiType psiType) {
-        return !isVoidOrJavaLangVoid(psiType);
-    }
+    private static final Set<String> SET_TYPES = new HashSet<>(Arrays.asList(
+            CommonClassNames.JAVA_UTIL_SET,
+            CommonClassNames.JAVA_UTIL_HASH_SET
+    ));
 
     /**
-     * 判断给定的PsiType是否表示一个接口、抽象类或枚举。
+     * 默认值为 HashMap 的容器类型。
+     */
+    private static final Set<String> MAP_TYPES = new HashSet<>(Arrays.asList(
+            CommonClassNames.JAVA_UTIL_MAP,
+            CommonClassNames.JAVA_UTIL_HASH_MAP
+    ));
+
+    /**
+     * 一次解析得到给定类型的全部分类结果，包括解析后的类名、各分类标志以及默认值表达式。
+     * 这是类型分类的唯一规则，类型只解析一次。
+     * List、Set、Map、Optional、Page 以及数组等容器类型按类型参数生成填充了元素的默认值，
+     * 这类类型不再视为自定义类型；类型参数的分类通过 elementClassifier 获取，以便复用调用方的分类缓存。
      *
-     * @param psiType 需要判断的PsiType对象
-     * @return 如果是接口、抽象类或枚举返回true，否则返回false
+     * @param psiType           要分类的PsiType对象
+     * @param elementCount      容器默认值中的元素个数，0 表示使用空容器
+     * @param elementClassifier 类型参数的分类函数
+     * @return 类型的分类结果
      */
-    public static boolean isInterfaceOrAbstractClassOrEnum(PsiType psiType) {
-        if (psiType instanceof PsiClassType) {
-            PsiClassType classType = (PsiClassType) psiType;
-            PsiClass psiClass = classType.resolve(); // 解析PsiClass
-            if (psiClass == null) {
-                return false;
-            }
-            // 检查是否为接口、抽象类或枚举
-            return psiClass.isInterface() || psiClass.hasModifierProperty(PsiModifier.ABSTRACT) || psiClass.isEnum();
-        }
-        return false;
+    public static TypeClassification classify(@NotNull PsiType psiType,
+                                              int elementCount,
+                                              @NotNull Function<PsiType, TypeClassification> elementClassifier) {
+        PsiClass psiClass = PsiUtil.resolveClassInType(psiType);
+        String qualifiedName = psiClass == null ? null : psiClass.getQualifiedName();
+        String containerDefaultValue = getContainerDefaultValue(psiType, qualifiedName, elementCount, elementClassifier, false);
+        // 自定义类型、接口等判断只针对类类型本身，数组等类型不参与；容器类型使用容器默认值，同样不参与
+        PsiClass classTypeClass = psiType instanceof PsiClassType && containerDefaultValue == null ? psiClass : null;
+        boolean customType = classTypeClass != null
+                && !(qualifiedName != null && qualifiedName.startsWith("java.lang"));
+        boolean interfaceOrAbstractClassOrEnum = classTypeClass != null
+                && (classTypeClass.isInterface()
+                || classTypeClass.hasModifierProperty(PsiModifier.ABSTRACT)
+                || classTypeClass.isEnum());
+        String defaultValueTemplate = containerDefaultValue == null
+                ? null
+                : getContainerDefaultValue(psiType, qualifiedName, elementCount, elementClassifier, true);
+        return new TypeClassification(
+                qualifiedName,
+                psiClass == null ? null : psiClass.getName(),
+                psiType instanceof PsiPrimitiveType,
+                psiType instanceof PsiClassType && CommonClassNames.JAVA_LANG_STRING.equals(qualifiedName),
+                isVoidType(psiType) || psiType instanceof PsiClassType && CommonClassNames.JAVA_LANG_VOID.equals(qualifiedName),
+                customType,
+                interfaceOrAbstractClassOrEnum,
+                containerDefaultValue == null ? getDefaultValue(psiType) : containerDefaultValue,
+                // 模板与默认值相同说明元素不是自定义类型，不需要模板
+                containerDefaultValue == null || containerDefaultValue.equals(defaultValueTemplate) ? null : defaultValueTemplate
+        );
     }
 
     /**
-     * 判断给定的PsiType是否表示一个接口、抽象类或枚举。
+     * 获取容器类型的元素类型：数组的元素类型，List、Set、Optional、Page 等的类型参数，Map 的值类型。
+     * 通配符类型取其上界。
      *
-     * @param psiType 需要判断的PsiType对象
-     * @return 如果不是接口、抽象类或枚举返回true，否则返回false
+     * @param psiType 容器类型
+     * @return 元素类型；不是容器类型或没有类型参数时返回null
      */
-    public static boolean notInterfaceOrAbstractClassOrEnum(PsiType psiType) {
-        return !isInterfaceOrAbstractClassOrEnum(psiType);
+    public static PsiType getElementType(@NotNull PsiType psiType) {
+        if (psiType instanceof PsiArrayType) {
+            return ((PsiArrayType) psiType).getComponentType();
+        }
+        if (!(psiType instanceof PsiClassType)) {
+            return null;
+        }
+        PsiClass psiClass = ((PsiClassType) psiType).resolve();
+        String qualifiedName = psiClass == null ? null : psiClass.getQualifiedName();
+        if (qualifiedName == null) {
+            return null;
+        }
+        if (MAP_TYPES.contains(qualifiedName)) {
+            return getTypeParameter(psiType, 1);
+        }
+        if (LIST_TYPES.contains(qualifiedName)
+                || SET_TYPES.contains(qualifiedName)
+                || CommonClassNames.JAVA_UTIL_OPTIONAL.equals(qualifiedName)
+                || SPRING_DATA_PAGE.equals(qualifiedName)) {
+            return getTypeParameter(psiType, 0);
+        }
+        return null;
     }
 
     /**
-     * 判断给定的PsiType是否不是自定义类型。
-     * 在此上下文中，自定义类型被定义为不是java.lang包下的类，
-     * 也不是Java的基本数据类型。
+     * 生成容器类型的默认值，元素按类型参数的默认值填充 elementCount 个。
+     * 元素为可实例化的自定义类型时，asTemplate 为 true 则填入占位符，否则填入以完全限定名构造的 new 表达式；
+     * 元素没有可用的默认值（例如接口或无法解析的类型参数）时使用空容器。
      *
-     * @param psiType 要检查的PsiType对象
-     * @return 如果PsiType是自定义类型，则返回true；如果是自定义类型，则返回false
+     * @param psiType           要生成默认值的类型
+     * @param qualifiedName     类型解析后的类的完全限定名
+     * @param elementCount      元素个数
+     * @param elementClassifier 类型参数的分类函数
+     * @param asTemplate        是否生成带占位符的模板
+     * @return 容器的默认值表达式；不是容器类型时返回null
      */
-    public static boolean isCustomType(PsiType psiType) {
-        // 检查是否是基本数据类型
-        if (psiType instanceof PsiPrimitiveType) {
-            // 是基本数据类型，因此不是自定义类型
-            return false;
+    private static String getContainerDefaultValue(PsiType psiType,
+                                                   String qualifiedName,
+                                                   int elementCount,
+                                                   Function<PsiType, TypeClassification> elementClassifier,
+                                                   boolean asTemplate) {
+        if (psiType instanceof PsiArrayType) {
+            // 泛型数组无法直接创建，使用擦除后的元素类型
+            String componentText = TypeConversionUtil.erasure(((PsiArrayType) psiType).getComponentType()).getCanonicalText();
+            String elements = repeatElement(getElementType(psiType), elementCount, elementClassifier, asTemplate);
+            return elements == null
+                    ? "new " + componentText + "[0]"
+                    : "new " + componentText + "[]{" + elements + "}";
         }
-        // 检查是否是PsiClassType，即类类型
-        if (!(psiType instanceof PsiClassType)) {
-            // 不是类类型，可能是其他类型如数组类型、泛型类型等，我们认为它们不是自定义类型
-            return false;
-        }
-        PsiClassType classType = (PsiClassType) psiType;
-        PsiClass psiClass = classType.resolve(); // 解析PsiClass
-        // 检查PsiClass是否为null或者在java.lang包下
-        if (psiClass == null || psiClass.getQualifiedName() != null
-                && psiClass.getQualifiedName().startsWith("java.lang")) {
-            // 是java.lang包下的类或无法解析的类，因此不是自定义类型
-            return false;
-        }
-        // 如果以上条件都不满足，那么我们可以认为这是一个自定义类型
-        return true;
+        if (!(psiType instanceof PsiClassType) || qualifiedName == null) {
+            return null;
+        }
+        if (LIST_TYPES.contains(qualifiedName)) {
+            String elements = repeatElement(getElementType(psiType), elementCount, elementClassifier, asTemplate);
+            return elements == null ? "new ArrayList<>()" : "new ArrayList<>(Arrays.asList(" + elements + "))";
+        }
+        if (SET_TYPES.contains(qualifiedName)) {
+            String elements = repeatElement(getElementType(psiType), elementCount, elementClassifier, asTemplate);
+            return elements == null ? "new HashSet<>()" : "new HashSet<>(Arrays.asList(" + elements + "))";
+        }
+        if (MAP_TYPES.contains(qualifiedName)) {
+            // 所有键的默认值相同，因此 Map 最多只有一个条目
+            PsiType keyType = getTypeParameter(psiType, 0);
+            TypeClassification keyClassification = keyType == null ? null : elementClassifier.apply(keyType);
+            String value = elementCount > 0 ? elementExpression(getElementType(psiType), elementClassifier, asTemplate) : null;
+            if (keyClassification == null || keyClassification.isInstantiableCustomType()
+                    || "null".equals(keyClassification.getDefaultValue()) || value == null) {
+                return "new HashMap<>()";
+            }
+            return "new HashMap<>(Collections.singletonMap(" + keyClassification.getDefaultValue() + ", " + value + "))";
+        }
+        if (CommonClassNames.JAVA_UTIL_OPTIONAL.equals(qualifiedName)) {
+            String value = elementCount > 0 ? elementExpression(getElementType(psiType), elementClassifier, asTemplate) : null;
+            return value == null ? "Optional.empty()" : "Optional.of(" + value + ")";
+        }
+        if (SPRING_DATA_PAGE.equals(qualifiedName)) {
+            String elements = repeatElement(getElementType(psiType), elementCount, elementClassifier, asTemplate);
+            return "new org.springframework.data.domain.PageImpl<>("
+                    + (elements == null ? "new ArrayList<>()" : "new ArrayList<>(Arrays.asList(" + elements + "))")
+                    + ")";
+        }
+        return null;
+    }
+
+    private static String repeatElement(PsiType elementType,
+                                        int elementCount,
+                                        Function<PsiType, TypeClassification> elementClassifier,
+                                        boolean asTemplate) {
+        String element = elementCount > 0 ? elementExpression(elementType, elementClassifier, asTemplate) : null;
+        return element == null ? null : String.join(", ", Collections.nCopies(elementCount, element));
     }
 
     /**
-     * 判断给定的PsiType是否不是自定义类型。
-     * 在此上下文中，自定义类型被定义为不是java.lang包下的类，
-     * 也不是Java的基本数据类型。
+     * 获取容器中单个元素的表达式。
      *
-     * @param psiType 要检查的PsiType对象
-     * @return 如果PsiType不是自定义类型，则返回true；如果是自定义类型，则返回false
+     * @return 元素表达式；元素类型未知或没有可用的默认值时返回null
      */
-    public static boolean notCustomType(PsiType psiType) {
-        return !isCustomType(psiType);
+    private static String elementExpression(PsiType elementType,
+                                            Function<PsiType, TypeClassification> elementClassifier,
+                                            boolean asTemplate) {
+        if (elementType == null) {
+            return null;
+        }
+        TypeClassification classification = elementClassifier.apply(elementType);
+        if (classification.isInstantiableCustomType()) {
+            // 使用完全限定名，默认值可以出现在任何位置而不需要额外的导入
+            return asTemplate ? ELEMENT_PLACEHOLDER : "new " + classification.getQualifiedName() + "()";
+        }
+        String defaultValue = classification.getDefaultValue();
+        return "null".equals(defaultValue) ? null : defaultValue;
+    }
+
+    private static PsiType getTypeParameter(PsiType psiType, int index) {
+        PsiType[] parameters = ((PsiClassType) psiType).getParameters();
+        if (parameters.length <= index) {
+            return null;
+        }
+        PsiType parameter = parameters[index];
+        if (parameter instanceof PsiWildcardType) {
+            PsiType bound = ((PsiWildcardType) parameter).getBound();
+            return ((PsiWildcardType) parameter).isExtends() ? bound : null;
+        }
+        return parameter;
     }
 
     /**
@@ -170,7 +270,6 @@ public class TypeClassifier {
             public String visitArrayType(@NotNull PsiArrayType arrayType) {
                 // 处理数组类型的默认值
                 PsiType componentType = arrayType.getComponentType();
-                String componentDefaultValue = componentType.accept(this);
                 return "new " + componentType.getCanonicalText() + "[0]"; // 返回空数组的初始化表达式
             }
 
@@ -208,16 +307,6 @@ public class TypeClassifier {
         });
     }
 
-    private static boolean isJavaLangVoidType(PsiType psiType) {
-        if (psiType instanceof PsiClassType) {
-            PsiClassType classType = (PsiClassType) psiType;
-            PsiClass psiClass = classType.resolve();
-            return psiClass != null && CommonClassNames.JAVA_LANG_VOID.equals(psiClass.getQualifiedName());
-        }
-        // 如果不是 PsiClassType 或者 PsiClass 不是 Void 类型，则返回 false
-        return false;
-    }
-
     private static boolean isVoidType(PsiType psiType) {
         return psiType instanceof PsiPrimitiveType && psiType.equalsToText("void");
     }